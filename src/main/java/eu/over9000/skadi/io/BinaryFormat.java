@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.io;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Framing of the binary files: a magic header and format version, the content and a CRC32 of header and content as
+ * trailer, so truncated or damaged files are detected on read. Also provides the encoding of nullable values.
+ */
+public final class BinaryFormat {
+
+	@FunctionalInterface
+	public interface Writer {
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	@FunctionalInterface
+	public interface Reader<T> {
+		/**
+		 * @param version the format version the content was written with, at most the current version
+		 */
+		T read(DataInputStream in, int version) throws IOException;
+	}
+
+	private final String name;
+	private final byte[] magic;
+	private final int version;
+
+	public BinaryFormat(final String name, final byte[] magic, final int version) {
+		this.name = name;
+		this.magic = magic.clone();
+		this.version = version;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return true if the given data starts with the header of this format
+	 */
+	public boolean isFormat(final byte[] data) {
+		return data.length >= magic.length && Arrays.equals(Arrays.copyOf(data, magic.length), magic);
+	}
+
+	public byte[] encode(final Writer content) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final CheckedOutputStream checked = new CheckedOutputStream(bytes, new CRC32());
+		final DataOutputStream out = new DataOutputStream(checked);
+
+		out.write(magic);
+		out.writeShort(version);
+		content.write(out);
+
+		out.flush();
+		out.writeInt((int) checked.getChecksum().getValue());
+		out.flush();
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @throws IOException if the data is not of this format, of a newer version, truncated or damaged
+	 */
+	public <T> T decode(final byte[] data, final Reader<T> content) throws IOException {
+		if (!isFormat(data) || data.length < magic.length + Short.BYTES + Integer.BYTES) {
+			throw new IOException("not a " + name);
+		}
+
+		final CheckedInputStream checked = new CheckedInputStream(new ByteArrayInputStream(data, 0, data.length - Integer.BYTES), new CRC32());
+		final DataInputStream in = new DataInputStream(checked);
+
+		in.skipBytes(magic.length);
+		final int dataVersion = in.readUnsignedShort();
+		if (dataVersion > version) {
+			throw new IOException("unsupported " + name + " version " + dataVersion);
+		}
+
+		final T result = content.read(in, dataVersion);
+
+		if (checked.read() != -1) {
+			throw new IOException("unexpected data after the " + name + " content");
+		}
+
+		final int expected = new DataInputStream(new ByteArrayInputStream(data, data.length - Integer.BYTES, Integer.BYTES)).readInt();
+		if (expected != (int) checked.getChecksum().getValue()) {
+			throw new IOException(name + " checksum mismatch");
+		}
+
+		return result;
+	}
+
+	public static void writeString(final DataOutputStream out, final String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	public static String readString(final DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	public static void writeLong(final DataOutputStream out, final Long value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeLong(value);
+		}
+	}
+
+	public static Long readLong(final DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readLong() : null;
+	}
+
+	public static void writeBoolean(final DataOutputStream out, final Boolean value) throws IOException {
+		out.writeByte(value == null ? -1 : value ? 1 : 0);
+	}
+
+	public static Boolean readBoolean(final DataInputStream in) throws IOException {
+		final byte value = in.readByte();
+		return value < 0 ? null : value == 1;
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.io;
+
+import eu.over9000.skadi.model.StateContainer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compact binary format of the {@link StateContainer}, framed by a {@link BinaryFormat}: the fields are written in a
+ * fixed order between the header and the checksum. Booleans, ints and doubles are plain {@link DataOutputStream}
+ * values, lists are an int count followed by the modified UTF-8 strings, nullable strings are a presence flag followed by
+ * the modified UTF-8 string.
+ * <p>
+ * New fields are appended at the end of the field list and increase the version, older versions are decoded with the
+ * defaults of the fields they do not contain.
+ */
+public final class BinaryStateCodec {
+
+	public static final int VERSION = 1;
+	private static final BinaryFormat FORMAT = new BinaryFormat("binary state", new byte[]{'S', 'K', 'D', 'S'}, VERSION);
+
+	private BinaryStateCodec() {
+	}
+
+	/**
+	 * @return true if the given data starts with the header of this format
+	 */
+	public static boolean isBinaryState(final byte[] data) {
+		return FORMAT.isFormat(data);
+	}
+
+	public static byte[] encode(final StateContainer state) throws IOException {
+		return FORMAT.encode(out -> {
+			writeList(out, state.getChannels());
+			writeList(out, state.getStreamlinkArgs());
+			BinaryFormat.writeString(out, state.getExecutableChrome());
+			BinaryFormat.writeString(out, state.getExecutableStreamlink());
+			out.writeBoolean(state.isDisplayNotifications());
+			out.writeBoolean(state.isMinimizeToTray());
+			out.writeBoolean(state.isOnlineFilterActive());
+			out.writeBoolean(state.isUseDarkTheme());
+			out.writeBoolean(state.isShowGrid());
+			out.writeDouble(state.getWindowWidth());
+			out.writeDouble(state.getWindowHeight());
+			out.writeDouble(state.getGridScale());
+			BinaryFormat.writeString(out, state.getAuthToken());
+			out.writeInt(state.getPreviewRefreshInterval());
+		});
+	}
+
+	public static StateContainer decode(final byte[] data) throws IOException {
+		return FORMAT.decode(data, (in, version) -> {
+			final StateContainer state = new StateContainer();
+			readList(in, state.getChannels());
+			readList(in, state.getStreamlinkArgs());
+			state.setExecutableChrome(BinaryFormat.readString(in));
+			state.setExecutableStreamlink(BinaryFormat.readString(in));
+			state.setDisplayNotifications(in.readBoolean());
+			state.setMinimizeToTray(in.readBoolean());
+			state.setOnlineFilterActive(in.readBoolean());
+			state.setUseDarkTheme(in.readBoolean());
+			state.setShowGrid(in.readBoolean());
+			state.setWindowWidth(in.readDouble());
+			state.setWindowHeight(in.readDouble());
+			state.setGridScale(in.readDouble());
+			state.setAuthToken(BinaryFormat.readString(in));
+			state.setPreviewRefreshInterval(in.readInt());
+			return state;
+		});
+	}
+
+	private static void writeList(final DataOutputStream out, final List<String> values) throws IOException {
+		out.writeInt(values.size());
+		for (final String value : values) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static void readList(final DataInputStream in, final List<String> values) throws IOException {
+		final int size = in.readInt();
+		if (size < 0) {
+			throw new IOException("invalid list size " + size);
+		}
+		values.clear();
+		for (int i = 0; i < size; i++) {
+			values.add(in.readUTF());
+		}
+	}
+}
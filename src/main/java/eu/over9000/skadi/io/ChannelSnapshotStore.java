@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.io;
+
+import eu.over9000.skadi.remote.data.ChannelMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the last known metadata of the channels, so the next session can show it until the channels are updated.
+ * The snapshot is a {@link BinaryFormat} file that is replaced atomically by a background writer.
+ */
+public class ChannelSnapshotStore {
+
+	public static final String SNAPSHOT_FILE = "channel_snapshot.bin";
+	private static final Logger LOGGER = LoggerFactory.getLogger(ChannelSnapshotStore.class);
+	private static final BinaryFormat FORMAT = new BinaryFormat("channel snapshot", new byte[]{'S', 'K', 'D', 'C'}, 1);
+	private static final long MAX_AGE = TimeUnit.DAYS.toMillis(7);
+
+	public static final class Entry {
+		private final ChannelMetadata metadata;
+		private final long timestamp;
+
+		public Entry(final ChannelMetadata metadata, final long timestamp) {
+			this.metadata = metadata;
+			this.timestamp = timestamp;
+		}
+
+		public ChannelMetadata getMetadata() {
+			return metadata;
+		}
+
+		/**
+		 * @return the time the metadata was retrieved in epoch milliseconds
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+	}
+
+	private final Path file;
+	private final DebouncedWriter<Map<String, Entry>> writer = new DebouncedWriter<>("snapshot", 0, this::write);
+
+	public ChannelSnapshotStore() {
+		this(Paths.get(PersistenceHandler.PERSISTENCE_DIRECTORY, SNAPSHOT_FILE));
+	}
+
+	public ChannelSnapshotStore(final Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * Reads the snapshot, entries older than a week are skipped.
+	 *
+	 * @return the entries by channel name, empty if there is no readable snapshot
+	 */
+	public Map<String, Entry> load() {
+		Map<String, Entry> result = new HashMap<>();
+		if (!Files.exists(file)) {
+			return result;
+		}
+
+		try {
+			result = FORMAT.decode(Files.readAllBytes(file), (in, version) -> readEntries(in));
+		} catch (final IOException e) {
+			LOGGER.warn("exception loading channel snapshot, starting without", e);
+		}
+
+		LOGGER.debug("loaded snapshot of " + result.size() + " channels");
+		return result;
+	}
+
+	/**
+	 * Writes the given entries in the background, replacing a pending snapshot that was not written yet.
+	 */
+	public void save(final Map<String, Entry> entries) {
+		writer.submit(entries);
+	}
+
+	/**
+	 * Writes the pending snapshot and stops the background writer.
+	 */
+	public void shutdown() {
+		writer.shutdown();
+	}
+
+	private void write(final Map<String, Entry> entries) {
+		try {
+			Files.createDirectories(file.getParent());
+			AtomicFiles.write(file, FORMAT.encode(out -> writeEntries(out, entries)));
+			LOGGER.debug("wrote snapshot of " + entries.size() + " channels");
+		} catch (final IOException e) {
+			LOGGER.error("exception writing channel snapshot", e);
+		}
+	}
+
+	private static Map<String, Entry> readEntries(final DataInputStream in) throws IOException {
+		final Map<String, Entry> result = new HashMap<>();
+		final long cutoff = System.currentTimeMillis() - MAX_AGE;
+		final int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			final String name = in.readUTF();
+			final long timestamp = in.readLong();
+			final ChannelMetadata metadata = new ChannelMetadata(BinaryFormat.readString(in), BinaryFormat.readLong(in), BinaryFormat.readLong(in), BinaryFormat.readBoolean(in), BinaryFormat.readString(in), BinaryFormat.readString(in), BinaryFormat.readLong(in), BinaryFormat.readLong(in), BinaryFormat.readBoolean(in));
+			if (timestamp >= cutoff) {
+				result.put(name, new Entry(metadata, timestamp));
+			}
+		}
+		return result;
+	}
+
+	private static void writeEntries(final DataOutputStream out, final Map<String, Entry> entries) throws IOException {
+		out.writeInt(entries.size());
+		for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+			final ChannelMetadata metadata = entry.getValue().getMetadata();
+			out.writeUTF(entry.getKey());
+			out.writeLong(entry.getValue().getTimestamp());
+			BinaryFormat.writeString(out, metadata.getTitle());
+			BinaryFormat.writeLong(out, metadata.getViewer());
+			BinaryFormat.writeLong(out, metadata.getUptime());
+			BinaryFormat.writeBoolean(out, metadata.getOnline());
+			BinaryFormat.writeString(out, metadata.getGame());
+			BinaryFormat.writeString(out, metadata.getLogoURL());
+			BinaryFormat.writeLong(out, metadata.getFollowers());
+			BinaryFormat.writeLong(out, metadata.getViews());
+			BinaryFormat.writeBoolean(out, metadata.getPartner());
+		}
+	}
+}
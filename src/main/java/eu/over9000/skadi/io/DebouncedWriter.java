@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.io;
+
+import eu.over9000.skadi.util.ExecutorUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind of a value by a single background thread. A value is written after the debounce window, values
+ * submitted while one is pending replace it, so bursts of saves are coalesced into one write.
+ */
+public final class DebouncedWriter<T> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DebouncedWriter.class);
+	private static final long FLUSH_TIMEOUT_SECONDS = 5;
+
+	private final String name;
+	private final long debounceMillis;
+	private final Consumer<T> write;
+	private final ScheduledExecutorService writer;
+	private final AtomicReference<T> pending = new AtomicReference<>();
+
+	/**
+	 * @param write writes a value, called on the background thread (or on the caller after the shutdown)
+	 */
+	public DebouncedWriter(final String name, final long debounceMillis, final Consumer<T> write) {
+		this.name = name;
+		this.debounceMillis = debounceMillis;
+		this.write = write;
+		this.writer = Executors.newSingleThreadScheduledExecutor(ExecutorUtil.createThreadFactory(name));
+	}
+
+	/**
+	 * Writes the value after the debounce window, values submitted after the shutdown are written directly.
+	 */
+	public void submit(final T value) {
+		if (pending.getAndSet(value) == null) {
+			try {
+				writer.schedule(this::writePending, debounceMillis, TimeUnit.MILLISECONDS);
+			} catch (final RejectedExecutionException e) {
+				LOGGER.warn(name + " submitted after shutdown, writing directly");
+				writePending();
+			}
+		}
+	}
+
+	/**
+	 * Writes a pending value immediately and stops the background thread.
+	 */
+	public void shutdown() {
+		try {
+			final Future<?> flush = writer.submit(this::writePending);
+			writer.shutdown();
+			flush.get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (final RejectedExecutionException | ExecutionException | TimeoutException e) {
+			LOGGER.error("failed to flush " + name + " in background, writing directly", e);
+			writePending();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			writePending();
+		}
+	}
+
+	private void writePending() {
+		final T value = pending.getAndSet(null);
+		if (value != null) {
+			write.accept(value);
+		}
+	}
+}
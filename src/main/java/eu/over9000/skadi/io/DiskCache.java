@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.io;
+
+import eu.over9000.skadi.util.ExecutorUtil;
+import eu.over9000.skadi.util.HashUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of byte arrays, one file per entry named by the hash of its key. Entries expire a fixed time after
+ * they were written (the modification time of the file), so changed content at the same key is retrieved again. The
+ * least recently used entries are removed when the overall size exceeds the cap, the access times are only tracked in
+ * memory and start out as the write times.
+ * <p>
+ * The existing entries are scanned (size, expiry) by a background thread, so creating the cache does not block the
+ * calling thread. Writes wait for the scan to finish, reads do not.
+ */
+public class DiskCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DiskCache.class);
+	private static final double TRIM_TARGET = 0.9;
+
+	private final Path directory;
+	private final long maxSize;
+	private final long expiry;
+	private final Map<Path, Long> lastAccess = new ConcurrentHashMap<>();
+	private final long created = System.currentTimeMillis();
+
+	// guarded by this
+	private long size;
+
+	public DiskCache(final Path directory, final long maxSize, final long expiry) {
+		this.directory = directory;
+		this.maxSize = maxSize;
+		this.expiry = expiry;
+
+		try {
+			Files.createDirectories(directory);
+		} catch (final IOException e) {
+			LOGGER.error("exception creating disk cache directory " + directory, e);
+		}
+
+		ExecutorUtil.createThreadFactory("cache-scan").newThread(this::scan).start();
+	}
+
+	/**
+	 * Removes temp files left by the previous session and expired entries and sums up the size of the remaining entries.
+	 */
+	private synchronized void scan() {
+		try {
+			try (Stream<Path> stream = Files.list(directory)) {
+				stream.filter(file -> file.toString().endsWith(".tmp") && file.toFile().lastModified() < created).forEach(file -> file.toFile().delete());
+			}
+			for (final Path file : listFiles()) {
+				if (isExpired(file)) {
+					Files.deleteIfExists(file);
+				} else {
+					size += Files.size(file);
+				}
+			}
+			if (size > maxSize) {
+				trim();
+			}
+		} catch (final IOException e) {
+			LOGGER.error("exception scanning disk cache in " + directory, e);
+		}
+	}
+
+	/**
+	 * @return the cached bytes, or null if there is no valid entry for the key
+	 */
+	public byte[] get(final String key) {
+		final Path file = directory.resolve(hash(key));
+		try {
+			if (!Files.exists(file)) {
+				return null;
+			}
+			if (isExpired(file)) {
+				remove(file);
+				return null;
+			}
+			final byte[] data = Files.readAllBytes(file);
+			lastAccess.put(file, System.currentTimeMillis());
+			return data;
+		} catch (final IOException e) {
+			LOGGER.warn("exception reading disk cache entry " + file, e);
+			return null;
+		}
+	}
+
+	public void put(final String key, final byte[] data) {
+		final Path file = directory.resolve(hash(key));
+		try {
+			final Path temp = Files.createTempFile(directory, null, ".tmp");
+			Files.write(temp, data);
+			synchronized (this) {
+				final long previousSize = Files.exists(file) ? Files.size(file) : 0;
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				size += data.length - previousSize;
+				lastAccess.put(file, System.currentTimeMillis());
+				if (size > maxSize) {
+					trim();
+				}
+			}
+		} catch (final IOException e) {
+			LOGGER.warn("exception writing disk cache entry " + file, e);
+		}
+	}
+
+	public synchronized long getSize() {
+		return size;
+	}
+
+	private synchronized void remove(final Path file) throws IOException {
+		final long fileSize = Files.size(file);
+		if (Files.deleteIfExists(file)) {
+			size -= fileSize;
+		}
+		lastAccess.remove(file);
+	}
+
+	private synchronized void trim() throws IOException {
+		final List<Path> files = listFiles();
+		files.sort(Comparator.comparingLong(this::getLastAccess));
+
+		for (final Path file : files) {
+			if (size <= maxSize * TRIM_TARGET) {
+				break;
+			}
+			remove(file);
+		}
+		LOGGER.debug("trimmed disk cache " + directory + " to " + size + " bytes");
+	}
+
+	private long getLastAccess(final Path file) {
+		final Long accessed = lastAccess.get(file);
+		return accessed != null ? accessed : file.toFile().lastModified();
+	}
+
+	private boolean isExpired(final Path file) throws IOException {
+		return Files.getLastModifiedTime(file).toMillis() + expiry < System.currentTimeMillis();
+	}
+
+	private List<Path> listFiles() throws IOException {
+		final List<Path> files = new ArrayList<>();
+		try (Stream<Path> stream = Files.list(directory)) {
+			stream.filter(Files::isRegularFile).filter(file -> !file.toString().endsWith(".tmp")).forEach(files::add);
+		}
+		return files;
+	}
+
+	private static String hash(final String key) {
+		return HashUtil.sha1(key.getBytes(StandardCharsets.UTF_8));
+	}
+}
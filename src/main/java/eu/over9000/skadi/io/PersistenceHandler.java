@@ -23,90 +23,227 @@
 package eu.over9000.skadi.io;
 
 import eu.over9000.skadi.model.StateContainer;
+import eu.over9000.skadi.util.MetricsUtil;
 import org.apache.commons.lang3.SystemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.*;
 
+/**
+ * Loads and saves the {@link StateContainer}. Saving is write-behind: the state is copied on the calling thread and
+ * written by a single background writer, saves within the debounce window are coalesced into one write.
+ * <p>
+ * The state file is replaced atomically by a synced temp file, the previous files are kept as rolling backups. If the
+ * state file can not be read, the newest readable backup is loaded.
+ * <p>
+ * The state is written with the {@link BinaryStateCodec}. The format of a file is detected by its header, so a state
+ * saved as XML by an older version is still loaded and migrated to the binary file by the next save. The XML files are
+ * only read as long as there is no binary state, the XML state file is renamed once the migrated state is written.
+ */
 public final class PersistenceHandler {
 
 	public static final String SKADI_DIRECTORY_NAME = ".skadi";
 	public static final String PERSISTENCE_DIRECTORY = SystemUtils.USER_HOME + File.separator + SKADI_DIRECTORY_NAME + File.separator;
-	public static final String PERSISTENCE_FILE = "skadi_state.xml";
+	public static final String PERSISTENCE_FILE = "skadi_state.bin";
+	public static final String LEGACY_PERSISTENCE_FILE = "skadi_state.xml";
 	private static final Logger LOGGER = LoggerFactory.getLogger(PersistenceHandler.class);
+	private static final long DEBOUNCE_MILLIS = 500;
+	private static final int BACKUP_COUNT = 3;
+	private static final String CORRUPT_SUFFIX = ".corrupt";
+	private static final String MIGRATED_SUFFIX = ".migrated";
 	private final Object fileLock = new Object();
-	private Marshaller marshaller;
+	private final DebouncedWriter<StateContainer> writer = new DebouncedWriter<>("persistence", DEBOUNCE_MILLIS, this::write);
+	private volatile boolean migrating = false;
+	// only created if a XML state has to be read, creating the JAXB context is expensive
 	private Unmarshaller unmarshaller;
 
-	public PersistenceHandler() {
+	public StateContainer loadState() {
 		try {
-			final JAXBContext context = JAXBContext.newInstance(StateContainer.class);
-			marshaller = context.createMarshaller();
-			unmarshaller = context.createUnmarshaller();
-			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+			checkDir();
+			Files.deleteIfExists(getTempFilePath());
+		} catch (final IOException e) {
+			LOGGER.error("exception preparing state directory", e);
+		}
+
+		final boolean legacy = !hasStateFile(PERSISTENCE_FILE);
+		final String fileName = legacy ? LEGACY_PERSISTENCE_FILE : PERSISTENCE_FILE;
+
+		boolean found = false;
+		for (int generation = 0; generation <= BACKUP_COUNT; generation++) {
+			final Path file = getStateFilePath(fileName, generation);
+			if (!Files.exists(file)) {
+				continue;
+			}
 
-		} catch (final JAXBException e) {
-			LOGGER.error("exception construction persistence handler", e);
+			found = true;
+			try {
+				final StateContainer result = readFromFile(file);
+				if (generation > 0) {
+					LOGGER.warn("recovered state from backup " + file);
+					MetricsUtil.increment("persistence.load.recovered");
+				}
+				if (legacy) {
+					LOGGER.info("migrating state from " + file);
+					migrating = true;
+					saveState(result);
+				}
+				return result;
+			} catch (IOException | JAXBException e) {
+				LOGGER.error("exception loading state from " + file, e);
+			}
+		}
+
+		final StateContainer result = new StateContainer();
+		if (found) {
+			LOGGER.error("no readable state found, will fallback to default settings");
+			preserveCorrupt();
 		}
-	}
 
-	public StateContainer loadState() {
-		StateContainer result;
 		try {
-			if (Files.exists(getStateFilePath())) {
-				result = readFromFile();
-			} else {
-				checkDir();
-				result = new StateContainer();
-				writeToFile(result);
-			}
-		} catch (IOException | JAXBException e) {
-			LOGGER.error("exception loading state, will fallback to default settings", e);
-			result = new StateContainer();
+			writeToFile(result);
+		} catch (final IOException e) {
+			LOGGER.error("exception writing default state", e);
 		}
 		return result;
 	}
 
+	/**
+	 * Marks the state dirty, a snapshot of it is written in the background after the debounce window.
+	 */
 	public void saveState(final StateContainer state) {
+		MetricsUtil.increment("persistence.save.requested");
+		writer.submit(new StateContainer(state));
+	}
+
+	/**
+	 * Writes a pending state immediately and stops the background writer, saves after this are written directly.
+	 */
+	public void shutdown() {
+		writer.shutdown();
+	}
+
+	private void write(final StateContainer state) {
 		try {
 			checkDir();
 			writeToFile(state);
-		} catch (IOException | JAXBException e) {
+			MetricsUtil.increment("persistence.save.written");
+		} catch (final IOException e) {
 			LOGGER.error("exception saving state", e);
 		}
 	}
 
 	private Path getStateFilePath() {
-		return Paths.get(PERSISTENCE_DIRECTORY, PERSISTENCE_FILE);
+		return getStateFilePath(0);
 	}
 
-	private void writeToFile(final StateContainer state) throws IOException, JAXBException {
-		final Path stateFile = getStateFilePath();
+	private Path getStateFilePath(final int generation) {
+		return getStateFilePath(PERSISTENCE_FILE, generation);
+	}
+
+	/**
+	 * @return the state file for generation 0, the backup files for the older generations
+	 */
+	private static Path getStateFilePath(final String fileName, final int generation) {
+		return Paths.get(PERSISTENCE_DIRECTORY, generation == 0 ? fileName : fileName + "." + generation);
+	}
+
+	private static boolean hasStateFile(final String fileName) {
+		for (int generation = 0; generation <= BACKUP_COUNT; generation++) {
+			if (Files.exists(getStateFilePath(fileName, generation))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Path getTempFilePath() {
+		return AtomicFiles.getTempFile(getStateFilePath());
+	}
+
+	private void writeToFile(final StateContainer state) throws IOException {
+		final byte[] data = BinaryStateCodec.encode(state);
+		final Path tempFile = getTempFilePath();
 		synchronized (fileLock) {
-			marshaller.marshal(state, stateFile.toFile());
+			AtomicFiles.writeSynced(tempFile, data);
+			rotateBackups();
+			Files.move(tempFile, getStateFilePath(), StandardCopyOption.ATOMIC_MOVE);
 		}
 		LOGGER.debug("wrote state to file");
+
+		if (migrating) {
+			migrating = false;
+			retireLegacyState();
+		}
 	}
 
-	private StateContainer readFromFile() throws IOException, JAXBException {
-		final Path stateFile = getStateFilePath();
+	/**
+	 * Renames the XML state file after the migrated state was written, so it is not mistaken for the current state.
+	 */
+	private void retireLegacyState() {
+		final Path legacyFile = getStateFilePath(LEGACY_PERSISTENCE_FILE, 0);
+		try {
+			Files.move(legacyFile, Paths.get(PERSISTENCE_DIRECTORY, LEGACY_PERSISTENCE_FILE + MIGRATED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+			LOGGER.info("migrated state, renamed " + legacyFile);
+		} catch (final NoSuchFileException e) {
+			LOGGER.debug("no legacy state file to rename");
+		} catch (final IOException e) {
+			LOGGER.error("exception renaming legacy state file " + legacyFile, e);
+		}
+	}
+
+	/**
+	 * Shifts the state file and its backups by one generation, dropping the oldest backup.
+	 */
+	private void rotateBackups() throws IOException {
+		for (int generation = BACKUP_COUNT - 1; generation >= 0; generation--) {
+			final Path file = getStateFilePath(generation);
+			if (Files.exists(file)) {
+				Files.move(file, getStateFilePath(generation + 1), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+		}
+	}
+
+	/**
+	 * Keeps a copy of an unreadable state file, as it is going to be rotated out by the following writes.
+	 */
+	private void preserveCorrupt() {
+		try {
+			Files.copy(getStateFilePath(), Paths.get(PERSISTENCE_DIRECTORY, PERSISTENCE_FILE + CORRUPT_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+		} catch (final NoSuchFileException e) {
+			LOGGER.debug("no state file to preserve");
+		} catch (final IOException e) {
+			LOGGER.error("exception preserving unreadable state file", e);
+		}
+	}
+
+	private StateContainer readFromFile(final Path stateFile) throws IOException, JAXBException {
 		final StateContainer state;
 		synchronized (fileLock) {
-			state = (StateContainer) unmarshaller.unmarshal(stateFile.toFile());
+			final byte[] data = Files.readAllBytes(stateFile);
+			if (BinaryStateCodec.isBinaryState(data)) {
+				state = BinaryStateCodec.decode(data);
+			} else {
+				state = (StateContainer) getUnmarshaller().unmarshal(new ByteArrayInputStream(data));
+			}
 		}
-		LOGGER.debug("load state from file");
+		LOGGER.debug("load state from " + stateFile);
 		return state;
 	}
 
+	private Unmarshaller getUnmarshaller() throws JAXBException {
+		if (unmarshaller == null) {
+			unmarshaller = JAXBContext.newInstance(StateContainer.class).createUnmarshaller();
+		}
+		return unmarshaller;
+	}
+
 	private void checkDir() throws IOException {
 		Files.createDirectories(Paths.get(PERSISTENCE_DIRECTORY));
 	}
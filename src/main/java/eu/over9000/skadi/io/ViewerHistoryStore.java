@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.io;
+
+import eu.over9000.skadi.util.ExecutorUtil;
+import eu.over9000.skadi.util.MetricsUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Persistent viewer history, one append-only segment file per channel with fixed size records (timestamp and viewers
+ * as longs). Samples are buffered and appended by a single background writer. Reads binary search the segment with
+ * positional reads and read the requested range into a heap buffer, segments are not memory mapped since a mapped file
+ * can not be replaced by the compaction on Windows until the mapping is garbage collected.
+ * <p>
+ * The writer periodically compacts the segments: samples older than the retention are dropped, as are samples inside a
+ * run of equal viewer counts, which do not change the plotted history.
+ */
+public class ViewerHistoryStore {
+
+	public static final String HISTORY_DIRECTORY = "history";
+	private static final Logger LOGGER = LoggerFactory.getLogger(ViewerHistoryStore.class);
+	private static final String SEGMENT_SUFFIX = ".hist";
+	private static final int RECORD_SIZE = 2 * Long.BYTES;
+	private static final long RETENTION = TimeUnit.DAYS.toMillis(30);
+	private static final long FLUSH_INTERVAL_SECONDS = 30;
+	private static final long COMPACTION_INTERVAL_HOURS = 24;
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+	public static final class Sample {
+		private final long timestamp;
+		private final long viewers;
+
+		public Sample(final long timestamp, final long viewers) {
+			this.timestamp = timestamp;
+			this.viewers = viewers;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		public long getViewers() {
+			return viewers;
+		}
+	}
+
+	private final Path directory;
+	private final long retention;
+	private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(ExecutorUtil.createThreadFactory("history"));
+
+	// guarded by this
+	private Map<String, List<Sample>> pending = new HashMap<>();
+
+	public ViewerHistoryStore() {
+		this(Paths.get(PersistenceHandler.PERSISTENCE_DIRECTORY, HISTORY_DIRECTORY), RETENTION);
+	}
+
+	public ViewerHistoryStore(final Path directory, final long retention) {
+		this.directory = directory;
+		this.retention = retention;
+
+		try {
+			Files.createDirectories(directory);
+		} catch (final IOException e) {
+			LOGGER.error("exception creating history directory " + directory, e);
+		}
+
+		// the first compaction is not periodic, so it is not dropped by a shutdown before it ran
+		writer.execute(this::compactAll);
+		writer.scheduleWithFixedDelay(this::compactAll, COMPACTION_INTERVAL_HOURS, COMPACTION_INTERVAL_HOURS, TimeUnit.HOURS);
+		writer.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Adds a sample to the history of the channel, it is written with the next flush.
+	 */
+	public synchronized void append(final String channel, final long timestamp, final long viewers) {
+		pending.computeIfAbsent(channel, key -> new ArrayList<>()).add(new Sample(timestamp, viewers));
+	}
+
+	/**
+	 * @return the samples of the channel with from <= timestamp <= to, ordered by timestamp
+	 */
+	public List<Sample> query(final String channel, final long from, final long to) {
+		final List<Sample> result = new ArrayList<>();
+
+		final Path segment = getSegment(channel);
+		if (Files.exists(segment)) {
+			try (FileChannel fileChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+				final int count = (int) (fileChannel.size() / RECORD_SIZE);
+				final int first = firstIndex(fileChannel, count, from);
+				final int end = to == Long.MAX_VALUE ? count : firstIndex(fileChannel, count, to + 1);
+				readRecords(fileChannel, first, end, result);
+			} catch (final IOException e) {
+				LOGGER.warn("exception reading history of " + channel, e);
+			}
+		}
+
+		synchronized (this) {
+			pending.getOrDefault(channel, Collections.emptyList()).stream().filter(sample -> sample.getTimestamp() >= from && sample.getTimestamp() <= to).forEach(result::add);
+		}
+
+		MetricsUtil.increment("history.query");
+		return result;
+	}
+
+	/**
+	 * Writes the pending samples and stops the background writer.
+	 */
+	public void shutdown() {
+		try {
+			final Future<?> flush = writer.submit(this::flush);
+			writer.shutdown();
+			flush.get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (final RejectedExecutionException | ExecutionException | TimeoutException e) {
+			LOGGER.error("failed to flush viewer history", e);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return the index of the first record with timestamp >= from
+	 */
+	private static int firstIndex(final FileChannel fileChannel, final int count, final long from) throws IOException {
+		final ByteBuffer timestamp = ByteBuffer.allocate(Long.BYTES);
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			timestamp.clear();
+			readFully(fileChannel, timestamp, (long) mid * RECORD_SIZE);
+			if (timestamp.getLong(0) < from) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Reads the records first (inclusive) to end (exclusive) and adds them to the result.
+	 */
+	private static void readRecords(final FileChannel fileChannel, final int first, final int end, final List<Sample> result) throws IOException {
+		if (first >= end) {
+			return;
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate((end - first) * RECORD_SIZE);
+		readFully(fileChannel, buffer, (long) first * RECORD_SIZE);
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			result.add(new Sample(buffer.getLong(), buffer.getLong()));
+		}
+	}
+
+	private static void readFully(final FileChannel fileChannel, final ByteBuffer buffer, final long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (fileChannel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("unexpected end of history segment");
+			}
+		}
+	}
+
+	private void flush() {
+		final Map<String, List<Sample>> samples;
+		synchronized (this) {
+			if (pending.isEmpty()) {
+				return;
+			}
+			samples = pending;
+			pending = new HashMap<>();
+		}
+
+		samples.forEach((channel, list) -> {
+			final ByteBuffer buffer = ByteBuffer.allocate(list.size() * RECORD_SIZE);
+			list.forEach(sample -> buffer.putLong(sample.getTimestamp()).putLong(sample.getViewers()));
+			buffer.flip();
+
+			try (FileChannel fileChannel = FileChannel.open(getSegment(channel), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+				while (buffer.hasRemaining()) {
+					fileChannel.write(buffer);
+				}
+			} catch (final IOException e) {
+				LOGGER.warn("exception writing history of " + channel, e);
+			}
+		});
+
+		MetricsUtil.add("history.written", samples.values().stream().mapToInt(List::size).sum());
+	}
+
+	private void compactAll() {
+		try (Stream<Path> stream = Files.list(directory)) {
+			stream.filter(file -> file.toString().endsWith(AtomicFiles.TEMP_SUFFIX)).forEach(file -> file.toFile().delete());
+		} catch (final IOException e) {
+			LOGGER.warn("exception cleaning history directory", e);
+		}
+
+		final long cutoff = System.currentTimeMillis() - retention;
+		try (Stream<Path> stream = Files.list(directory)) {
+			stream.filter(file -> file.toString().endsWith(SEGMENT_SUFFIX)).forEach(segment -> compact(segment, cutoff));
+		} catch (final IOException e) {
+			LOGGER.warn("exception listing history segments", e);
+		}
+	}
+
+	/**
+	 * Rewrites the segment without the expired and redundant samples, also drops a partial record left by a crash.
+	 */
+	private void compact(final Path segment, final long cutoff) {
+		try {
+			final long size = Files.size(segment);
+			final int count = (int) (size / RECORD_SIZE);
+
+			final List<Sample> samples = new ArrayList<>();
+			try (FileChannel fileChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+				readRecords(fileChannel, firstIndex(fileChannel, count, cutoff), count, samples);
+			}
+
+			final List<Sample> kept = new ArrayList<>();
+			for (final Sample sample : samples) {
+				final int last = kept.size() - 1;
+				// the middle one of three equal samples is redundant
+				if (last >= 1 && kept.get(last).getViewers() == sample.getViewers() && kept.get(last - 1).getViewers() == sample.getViewers()) {
+					kept.set(last, sample);
+				} else {
+					kept.add(sample);
+				}
+			}
+
+			if (kept.size() == count && size % RECORD_SIZE == 0) {
+				return;
+			}
+			if (kept.isEmpty()) {
+				Files.delete(segment);
+				return;
+			}
+
+			final ByteBuffer data = ByteBuffer.allocate(kept.size() * RECORD_SIZE);
+			kept.forEach(sample -> data.putLong(sample.getTimestamp()).putLong(sample.getViewers()));
+			AtomicFiles.write(segment, data.array());
+
+			MetricsUtil.add("history.compacted", count - kept.size());
+			LOGGER.debug("compacted history " + segment + " from " + count + " to " + kept.size() + " samples");
+		} catch (final IOException e) {
+			LOGGER.warn("exception compacting history " + segment, e);
+		}
+	}
+
+	private Path getSegment(final String channel) {
+		return directory.resolve(channel + SEGMENT_SUFFIX);
+	}
+}
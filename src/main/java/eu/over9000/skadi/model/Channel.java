@@ -30,7 +30,9 @@ import javafx.collections.FXCollections;
 import javafx.scene.chart.XYChart;
 import javafx.scene.image.Image;
 
+import java.time.Instant;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.stream.IntStream;
@@ -52,6 +54,11 @@ public class Channel {
 	private final LongProperty views;
 	private final ObjectProperty<Boolean> partner;
 	private final ObjectProperty<Image> preview;
+	private final LongProperty updateInterval;
+	private final ReadOnlyIntegerWrapper revision;
+	private final ReadOnlyBooleanWrapper stale;
+	private long dataTimestamp;
+	private boolean historyLoaded;
 
 	public Channel(final String name) {
 		this.name = new SimpleStringProperty(name);
@@ -70,17 +77,26 @@ public class Channel {
 		views = new SimpleLongProperty();
 		partner = new SimpleObjectProperty<>();
 		preview = new SimpleObjectProperty<>();
-	}
-
-	public void updateFrom(final ChannelMetadata u) {
+		updateInterval = new SimpleLongProperty();
+		revision = new ReadOnlyIntegerWrapper();
+		stale = new ReadOnlyBooleanWrapper(false);
+	}
+
+	/**
+	 * Shows the metadata of a previous session until the first update. Unlike {@link #updateFrom(ChannelMetadata)} this
+	 * records no viewer history and triggers no notifications, the channel is marked stale until it is updated.
+	 *
+	 * @param timestamp the time the metadata was retrieved in epoch milliseconds
+	 */
+	public void restoreFrom(final ChannelMetadata u, final long timestamp) {
 		if (u.hasTitle()) {
 			setTitle(u.getTitle());
 		}
 		if (u.hasOnline()) {
-			updateOnline(u.getOnline());
+			setOnline(u.getOnline());
 		}
 		if (u.hasViewer()) {
-			updateViewer(u.getViewer());
+			setViewer(u.getViewer());
 		}
 		if (u.hasGame()) {
 			setGame(u.getGame());
@@ -101,11 +117,100 @@ public class Channel {
 			setPartner(u.getPartner());
 		}
 
+		setLastUpdated(Instant.ofEpochMilli(timestamp).atZone(ZoneId.systemDefault()).toLocalTime());
+		dataTimestamp = timestamp;
+		stale.set(true);
+		revision.set(revision.get() + 1);
+	}
+
+	/**
+	 * Applies the fields of the given metadata that differ from the current state, unchanged fields are not touched and
+	 * fire no listeners.
+	 *
+	 * @return the mask of the changed {@link ChannelField}s
+	 */
+	public int updateFrom(final ChannelMetadata u) {
+		final int changes = u.diff(this);
+
+		if (ChannelField.TITLE.isIn(changes)) {
+			setTitle(u.getTitle());
+		}
+		if (ChannelField.ONLINE.isIn(changes)) {
+			updateOnline(u.getOnline());
+		}
+		if (ChannelField.VIEWER.isIn(changes)) {
+			updateViewer(u.getViewer());
+		}
+		if (ChannelField.GAME.isIn(changes)) {
+			setGame(u.getGame());
+		}
+		if (ChannelField.UPTIME.isIn(changes)) {
+			setUptime(u.getUptime());
+		}
+		if (ChannelField.LOGO_URL.isIn(changes)) {
+			setLogoURL(u.getLogoURL());
+		}
+		if (ChannelField.FOLLOWERS.isIn(changes)) {
+			setFollowers(u.getFollowers());
+		}
+		if (ChannelField.VIEWS.isIn(changes)) {
+			setViews(u.getViews());
+		}
+		if (ChannelField.PARTNER.isIn(changes)) {
+			setPartner(u.getPartner());
+		}
+
 		setLastUpdated(LocalTime.now());
+		dataTimestamp = System.currentTimeMillis();
+
+		final boolean wasStale = stale.get();
+		stale.set(false);
+
+		if ((changes & ChannelField.LIST_FIELDS) != 0 || wasStale) {
+			revision.set(revision.get() + 1);
+		}
 
-		if (cameOnline()) {
+		if (ChannelField.ONLINE.isIn(changes) && cameOnline()) {
 			NotificationUtil.showOnlineNotification(this);
 		}
+
+		return changes;
+	}
+
+	/**
+	 * @return the time the shown metadata was retrieved in epoch milliseconds, 0 if the channel has no metadata yet
+	 */
+	public long getDataTimestamp() {
+		return dataTimestamp;
+	}
+
+	/**
+	 * @return the current metadata of this channel, e.g. to persist it for the next session
+	 */
+	public ChannelMetadata toMetadata() {
+		return new ChannelMetadata(getTitle(), getViewer(), getUptime(), isOnline(), getGame(), getLogoURL(), getFollowers(), getViews(), getPartner());
+	}
+
+	public final ReadOnlyBooleanProperty staleProperty() {
+		return stale.getReadOnlyProperty();
+	}
+
+	/**
+	 * @return true if the channel shows restored metadata of a previous session that was not yet updated
+	 */
+	public final boolean isStale() {
+		return stale.get();
+	}
+
+	/**
+	 * @return true if the persisted viewer history was already merged into the viewer history of this session
+	 */
+	public boolean isHistoryLoaded() {
+		return historyLoaded;
+	}
+
+	public void setHistoryLoaded(final boolean historyLoaded) {
+		this.historyLoaded = historyLoaded;
 	}
 
 	private boolean cameOnline() {
@@ -318,4 +423,24 @@ public class Channel {
 	public ObjectProperty<Image> previewProperty() {
 		return preview;
 	}
+
+	public final LongProperty updateIntervalProperty() {
+		return updateInterval;
+	}
+
+	public final long getUpdateInterval() {
+		return updateIntervalProperty().get();
+	}
+
+	public final void setUpdateInterval(final long updateInterval) {
+		updateIntervalProperty().set(updateInterval);
+	}
+
+	/**
+	 * Incremented once per metadata update that changed a field the channel list is filtered or sorted by, observed by
+	 * the {@link ChannelList}.
+	 */
+	public final ReadOnlyIntegerProperty revisionProperty() {
+		return revision.getReadOnlyProperty();
+	}
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.model;
+
+/**
+ * Fields of a {@link Channel} that are updated from polled metadata. Changes are reported as a bit mask.
+ */
+public enum ChannelField {
+	TITLE, ONLINE, VIEWER, GAME, UPTIME, LOGO_URL, FOLLOWERS, VIEWS, PARTNER;
+
+	/**
+	 * Fields the channel list is filtered and sorted by. The uptime changes with every poll of a live channel but not the
+	 * order of the live channels by uptime, its cell is updated by its property alone.
+	 */
+	public static final int LIST_FIELDS = TITLE.mask() | ONLINE.mask() | VIEWER.mask() | GAME.mask();
+
+	public int mask() {
+		return 1 << ordinal();
+	}
+
+	public boolean isIn(final int changes) {
+		return (changes & mask()) != 0;
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.model;
+
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Observable channel list that reports a channel as updated when its revision changes. Updates applied inside
+ * {@link #batchUpdate(Runnable)} are reported as a single change, so filtered and sorted views of the list are only
+ * refreshed once per batch instead of once per changed property.
+ * <p>
+ * Membership and positions are kept in an identity index, so reporting an update and {@link #contains(Object)} do not
+ * scan the list. Insertions and removals shift positions, the positions are then rebuilt on the next update.
+ */
+public class ChannelList extends ModifiableObservableListBase<Channel> {
+
+	private final List<Channel> channels = new ArrayList<>();
+	private final Map<Channel, ChangeListener<Number>> revisionListeners = new IdentityHashMap<>();
+	private final Map<Channel, Integer> positions = new IdentityHashMap<>();
+	private boolean positionsValid = true;
+
+	public void batchUpdate(final Runnable updates) {
+		beginChange();
+		try {
+			updates.run();
+		} finally {
+			endChange();
+		}
+	}
+
+	@Override
+	public Channel get(final int index) {
+		return channels.get(index);
+	}
+
+	@Override
+	public int size() {
+		return channels.size();
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return revisionListeners.containsKey(o);
+	}
+
+	@Override
+	protected void doAdd(final int index, final Channel element) {
+		channels.add(index, element);
+		observe(element);
+		if (positionsValid && index == channels.size() - 1) {
+			positions.put(element, index);
+		} else {
+			// shifts the positions of the following channels
+			positionsValid = false;
+		}
+	}
+
+	@Override
+	protected Channel doSet(final int index, final Channel element) {
+		final Channel old = channels.set(index, element);
+		unobserve(old);
+		observe(element);
+		positions.remove(old);
+		positions.put(element, index);
+		return old;
+	}
+
+	@Override
+	protected Channel doRemove(final int index) {
+		final Channel old = channels.remove(index);
+		unobserve(old);
+		positions.remove(old);
+		if (index != channels.size()) {
+			positionsValid = false;
+		}
+		return old;
+	}
+
+	private void observe(final Channel channel) {
+		final ChangeListener<Number> listener = (observable, oldValue, newValue) -> onRevisionChanged(channel);
+		revisionListeners.put(channel, listener);
+		channel.revisionProperty().addListener(listener);
+	}
+
+	private void unobserve(final Channel channel) {
+		final ChangeListener<Number> listener = revisionListeners.remove(channel);
+		if (listener != null) {
+			channel.revisionProperty().removeListener(listener);
+		}
+	}
+
+	private void onRevisionChanged(final Channel channel) {
+		if (!positionsValid) {
+			positions.clear();
+			for (int i = 0; i < channels.size(); i++) {
+				positions.put(channels.get(i), i);
+			}
+			positionsValid = true;
+		}
+
+		final Integer index = positions.get(channel);
+		if (index != null) {
+			beginChange();
+			nextUpdate(index);
+			endChange();
+		}
+	}
+}
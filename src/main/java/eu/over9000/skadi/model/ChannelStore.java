@@ -22,51 +22,76 @@
 
 package eu.over9000.skadi.model;
 
+import eu.over9000.skadi.io.ChannelSnapshotStore;
 import eu.over9000.skadi.io.PersistenceHandler;
-import eu.over9000.skadi.remote.ChannelDataRetriever;
-import eu.over9000.skadi.service.ChannelUpdateService;
+import eu.over9000.skadi.io.ViewerHistoryStore;
+import eu.over9000.skadi.remote.ChannelDataRetriever.ChannelStatus;
+import eu.over9000.skadi.service.ChannelUpdateScheduler;
+import eu.over9000.skadi.service.CheckChannelService;
+import eu.over9000.skadi.service.PreviewRefreshService;
 import eu.over9000.skadi.ui.StatusBarWrapper;
 import eu.over9000.skadi.util.StringUtil;
-import javafx.beans.Observable;
-import javafx.collections.FXCollections;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.collections.ObservableMap;
+import javafx.util.Duration;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class ChannelStore {
 
-	private final ObservableList<Channel> channels = FXCollections.observableArrayList(c -> new Observable[]{c.titleProperty(), c.nameProperty(), c.uptimeProperty(), c.onlineProperty(), c.viewerProperty(), c.gameProperty()});
+	private static final Duration SNAPSHOT_INTERVAL = Duration.minutes(5);
 
-	private final ObservableMap<Channel, ChannelUpdateService> channelUpdater = FXCollections.observableHashMap();
+	private final ChannelList channels = new ChannelList();
+
+	private final ViewerHistoryStore historyStore = new ViewerHistoryStore();
+
+	private final ChannelUpdateQueue updateQueue = new ChannelUpdateQueue(channels, historyStore);
+
+	private final ChannelUpdateScheduler updateScheduler = new ChannelUpdateScheduler(updateQueue);
+
+	private final PreviewRefreshService previewRefresher;
+
+	private final ChannelSnapshotStore snapshotStore = new ChannelSnapshotStore();
+
+	private final Timeline snapshotTimer = new Timeline(new KeyFrame(SNAPSHOT_INTERVAL, event -> saveSnapshot()));
 
 	public ChannelStore(final PersistenceHandler persistenceHandler, final StateContainer state) {
+		previewRefresher = new PreviewRefreshService(TimeUnit.MINUTES.toSeconds(state.getPreviewRefreshInterval()));
 
 		final List<Channel> emptyChannels = state.getChannels().stream().map(String::toLowerCase).map(Channel::new).collect(Collectors.toList());
 
+		// show the metadata of the last session until the scheduler has updated the channels
+		final Map<String, ChannelSnapshotStore.Entry> snapshot = snapshotStore.load();
+		emptyChannels.forEach(channel -> {
+			final ChannelSnapshotStore.Entry entry = snapshot.get(channel.getName());
+			if (entry != null) {
+				channel.restoreFrom(entry.getMetadata(), entry.getTimestamp());
+			}
+		});
+
 		channels.addListener((final ListChangeListener.Change<? extends Channel> c) -> {
 			boolean updateState = false;
 			while (c.next()) {
 				if (c.wasAdded()) {
 					updateState = true;
-					for (final Channel channel : c.getAddedSubList()) {
-						final ChannelUpdateService service = new ChannelUpdateService(channel);
-						service.start();
-						channelUpdater.put(channel, service);
-					}
+					c.getAddedSubList().forEach(updateScheduler::register);
+					c.getAddedSubList().forEach(previewRefresher::register);
 				} else if (c.wasRemoved()) {
 					updateState = true;
-					for (final Channel channel : c.getRemoved()) {
-						final ChannelUpdateService service = channelUpdater.remove(channel);
-						service.cancel();
-					}
+					c.getRemoved().forEach(updateScheduler::unregister);
+					c.getRemoved().forEach(previewRefresher::unregister);
 				}
 			}
 
@@ -82,6 +107,47 @@ public class ChannelStore {
 		});
 
 		channels.addAll(emptyChannels);
+		updateScheduler.start();
+		previewRefresher.start();
+
+		snapshotTimer.setCycleCount(Animation.INDEFINITE);
+		snapshotTimer.play();
+	}
+
+	/**
+	 * Saves the metadata snapshot and flushes the persisted data of the channels.
+	 */
+	public void shutdown() {
+		snapshotTimer.stop();
+		saveSnapshot();
+		snapshotStore.shutdown();
+		historyStore.shutdown();
+	}
+
+	private void saveSnapshot() {
+		final Map<String, ChannelSnapshotStore.Entry> snapshot = new HashMap<>();
+		channels.forEach(channel -> {
+			if (channel.getDataTimestamp() > 0) {
+				snapshot.put(channel.getName(), new ChannelSnapshotStore.Entry(channel.toMetadata(), channel.getDataTimestamp()));
+			}
+		});
+		snapshotStore.save(snapshot);
+	}
+
+	public ChannelUpdateQueue getUpdateQueue() {
+		return updateQueue;
+	}
+
+	public ChannelUpdateScheduler getUpdateScheduler() {
+		return updateScheduler;
+	}
+
+	public ViewerHistoryStore getHistoryStore() {
+		return historyStore;
+	}
+
+	public PreviewRefreshService getPreviewRefresher() {
+		return previewRefresher;
 	}
 
 	public ObservableList<Channel> getChannels() {
@@ -96,6 +162,11 @@ public class ChannelStore {
 		return new Channel(name);
 	}
 
+	/**
+	 * Adds the channel once its existence was checked in the background.
+	 *
+	 * @return true if the name was accepted and the check started
+	 */
 	public boolean addChannel(final String name, final StatusBarWrapper sb) {
 		if (!checkPattern(name)) {
 			sb.updateStatusText(name + " is no vaild channelname");
@@ -105,14 +176,23 @@ public class ChannelStore {
 			sb.updateStatusText("channel " + name + " is already added");
 			return false;
 		}
-		if (!checkExists(name)) {
-			sb.updateStatusText("channel " + name + " does not exist");
-			return false;
-		}
 
-		final Channel newChannel = buildDummyChannel(name);
-		channels.add(newChannel);
-		sb.updateStatusText("added channel " + name);
+		final CheckChannelService checkService = new CheckChannelService(name);
+		checkService.setOnSucceeded(event -> {
+			if (checkService.getValue() == ChannelStatus.MISSING) {
+				sb.updateStatusText("channel " + name + " does not exist");
+			} else if (checkService.getValue() == ChannelStatus.UNAVAILABLE) {
+				sb.updateStatusText("Twitch API unavailable, could not check channel " + name);
+			} else if (checkContains(name)) {
+				sb.updateStatusText("channel " + name + " is already added");
+			} else {
+				channels.add(buildDummyChannel(name));
+				sb.updateStatusText("added channel " + name);
+			}
+		});
+		checkService.setOnFailed(event -> sb.updateStatusText("failed to check channel " + name));
+		sb.updateStatusText("checking channel " + name + "..");
+		checkService.start();
 		return true;
 	}
 
@@ -135,8 +215,4 @@ public class ChannelStore {
 		return StringUtil.containsIgnoreCase(getChannelNames(), channel);
 	}
 
-	private boolean checkExists(final String channel) {
-		return ChannelDataRetriever.checkIfChannelExists(channel);
-	}
-
 }
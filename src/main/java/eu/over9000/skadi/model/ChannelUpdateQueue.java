@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.model;
+
+import eu.over9000.skadi.io.ViewerHistoryStore;
+import eu.over9000.skadi.remote.data.ChannelMetadata;
+import eu.over9000.skadi.util.MetricsUtil;
+import javafx.application.Platform;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects channel metadata from the pollers and applies everything that arrived in the meantime with a single
+ * {@link Platform#runLater(Runnable)} as one batch update of the channel list. Viewer changes are also recorded in the
+ * {@link ViewerHistoryStore}.
+ */
+public class ChannelUpdateQueue {
+
+	private final ChannelList channels;
+	private final ViewerHistoryStore historyStore;
+	private final Queue<Map<Channel, ChannelMetadata>> pending = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+	public ChannelUpdateQueue(final ChannelList channels, final ViewerHistoryStore historyStore) {
+		this.channels = channels;
+		this.historyStore = historyStore;
+	}
+
+	public void enqueue(final Map<Channel, ChannelMetadata> updates) {
+		if (updates.isEmpty()) {
+			return;
+		}
+
+		pending.add(updates);
+		if (scheduled.compareAndSet(false, true)) {
+			Platform.runLater(this::applyPending);
+		}
+	}
+
+	private void applyPending() {
+		scheduled.set(false);
+
+		final long now = System.currentTimeMillis();
+		final Map<Channel, ChannelMetadata> updates = new LinkedHashMap<>();
+		Map<Channel, ChannelMetadata> next;
+		while ((next = pending.poll()) != null) {
+			updates.putAll(next);
+		}
+
+		channels.batchUpdate(() -> updates.forEach((channel, metadata) -> {
+			if (!channels.contains(channel)) {
+				return;
+			}
+
+			final int changes;
+			synchronized (channel) {
+				changes = channel.updateFrom(metadata);
+			}
+			countChanges(changes);
+
+			if (ChannelField.VIEWER.isIn(changes)) {
+				historyStore.append(channel.getName(), now, metadata.getViewer());
+			}
+		}));
+
+		MetricsUtil.increment("channel.update.batches");
+		MetricsUtil.add("channel.update.applied", updates.size());
+	}
+
+	private static void countChanges(final int changes) {
+		if (changes == 0) {
+			MetricsUtil.increment("channel.change.none");
+			return;
+		}
+		for (final ChannelField field : ChannelField.values()) {
+			if (field.isIn(changes)) {
+				MetricsUtil.increment("channel.change." + field.name().toLowerCase());
+			}
+		}
+	}
+}
@@ -60,10 +60,32 @@ public final class StateContainer {
 	private double gridScale = 0.0;
 	@XmlElement(name = "auth_token")
 	private String authToken = null;
+	@XmlElement(name = "preview_refresh_interval")
+	private int previewRefreshInterval = 5;
 
 	public StateContainer() {
 	}
 
+	/**
+	 * Creates a copy of the given state, e.g. to persist it on another thread.
+	 */
+	public StateContainer(final StateContainer other) {
+		channels.addAll(other.channels);
+		streamlinkArgs.addAll(other.streamlinkArgs);
+		executableChrome = other.executableChrome;
+		executableStreamlink = other.executableStreamlink;
+		displayNotifications = other.displayNotifications;
+		minimizeToTray = other.minimizeToTray;
+		onlineFilterActive = other.onlineFilterActive;
+		useDarkTheme = other.useDarkTheme;
+		showGrid = other.showGrid;
+		windowWidth = other.windowWidth;
+		windowHeight = other.windowHeight;
+		gridScale = other.gridScale;
+		authToken = other.authToken;
+		previewRefreshInterval = other.previewRefreshInterval;
+	}
+
 
 	private static String getDefaultStreamlink() {
 		if (SystemUtils.IS_OS_WINDOWS) {
@@ -184,4 +206,15 @@ public final class StateContainer {
 	public List<String> getStreamlinkArgs() {
 		return streamlinkArgs;
 	}
+
+	/**
+	 * @return the interval in minutes in which the previews of online channels are refreshed
+	 */
+	public int getPreviewRefreshInterval() {
+		return previewRefreshInterval;
+	}
+
+	public void setPreviewRefreshInterval(final int previewRefreshInterval) {
+		this.previewRefreshInterval = previewRefreshInterval;
+	}
 }
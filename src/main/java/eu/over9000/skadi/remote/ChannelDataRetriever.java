@@ -24,59 +24,158 @@ package eu.over9000.skadi.remote;
 
 import eu.over9000.cathode.Result;
 import eu.over9000.cathode.data.Stream;
-import eu.over9000.cathode.data.StreamBox;
+import eu.over9000.cathode.data.StreamList;
+import eu.over9000.cathode.data.parameters.GetStreamsOptions;
+import eu.over9000.cathode.data.parameters.OffsetPagination;
 import eu.over9000.skadi.model.Channel;
+import eu.over9000.skadi.remote.CircuitBreaker.Endpoint;
 import eu.over9000.skadi.remote.data.ChannelMetadata;
-import eu.over9000.skadi.util.ImageUtil;
+import eu.over9000.skadi.util.RateLimiter.Priority;
+import eu.over9000.skadi.util.SingleFlight;
 import eu.over9000.skadi.util.TwitchUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Date;
+import java.util.*;
 
 /**
  * This class provides static methods to retrieve channel/stream info from the twitch API.
  */
 public class ChannelDataRetriever {
+	/**
+	 * Maximum number of channels that are queried with a single streams request.
+	 */
+	public static final int MAX_BATCH_SIZE = 100;
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(ChannelDataRetriever.class);
 
-	public static ChannelMetadata getChannelMetadata(final Channel channel) {
-		ImageUtil.updatePreviewAsyncFromTwitch(channel);
+	public enum ChannelStatus {
+		EXISTS,
+		/**
+		 * Twitch does not know the channel, or it is not available anymore (e.g. banned).
+		 */
+		MISSING,
+		/**
+		 * The API could not be asked, e.g. because the circuit is open or the request failed.
+		 */
+		UNAVAILABLE
+	}
 
-		final Result<StreamBox> streamResponse = TwitchUtil.getTwitch().streams.getStream(channel.getName());
-		if (!streamResponse.isOk()) {
-			LOGGER.error("Exception getting metadata for stream " + channel + ": " + streamResponse.getErrorRaw());
-			return null;
+	private static final int HTTP_NOT_FOUND = 404;
+	private static final int HTTP_UNPROCESSABLE_ENTITY = 422;
+
+	private static final ChannelObjectCache CHANNEL_CACHE = new ChannelObjectCache();
+
+	private static final CircuitBreaker STREAMS_CIRCUIT = CircuitBreaker.get(Endpoint.STREAMS);
+	private static final CircuitBreaker CHANNELS_CIRCUIT = CircuitBreaker.get(Endpoint.CHANNELS);
+
+	private static final SingleFlight<Set<String>, Map<String, Stream>> STREAMS_REQUESTS = new SingleFlight<>("streams");
+	private static final SingleFlight<String, Result<eu.over9000.cathode.data.Channel>> CHANNEL_REQUESTS = new SingleFlight<>("channel");
+
+	/**
+	 * Retrieves the metadata of the given channels using one streams request per {@value #MAX_BATCH_SIZE} channels.
+	 * Channels whose metadata could not be retrieved are not contained in the result.
+	 */
+	public static Map<Channel, ChannelMetadata> getChannelMetadata(final List<Channel> channels, final Priority priority) {
+		final Map<Channel, ChannelMetadata> result = new HashMap<>(channels.size());
+		toBatches(channels).forEach(batch -> result.putAll(getBatchMetadata(batch, priority)));
+		return result;
+	}
+
+	public static <T> List<List<T>> toBatches(final List<T> elements) {
+		final List<List<T>> batches = new ArrayList<>();
+		for (int i = 0; i < elements.size(); i += MAX_BATCH_SIZE) {
+			batches.add(new ArrayList<>(elements.subList(i, Math.min(i + MAX_BATCH_SIZE, elements.size()))));
+		}
+		return batches;
+	}
+
+	private static Map<Channel, ChannelMetadata> getBatchMetadata(final List<Channel> batch, final Priority priority) {
+		final Map<String, Channel> channelsByName = new HashMap<>(batch.size());
+		batch.forEach(channel -> channelsByName.put(channel.getName().toLowerCase(), channel));
+
+		final Map<String, Stream> onlineStreams = STREAMS_REQUESTS.execute(channelsByName.keySet(), () -> getOnlineStreams(channelsByName.keySet(), priority));
+		if (onlineStreams == null) {
+			return Collections.emptyMap();
 		}
 
-		final StreamBox stream = streamResponse.getResultRaw();
+		final Map<Channel, ChannelMetadata> result = new HashMap<>(batch.size());
+		channelsByName.forEach((name, channel) -> {
+			final Stream stream = onlineStreams.get(name);
+			final ChannelMetadata metadata;
+			if (stream != null) {
+				CHANNEL_CACHE.put(name, stream.getChannel());
+				metadata = new ChannelMetadata(stream.getChannel(), stream.getViewers(), getChannelUptime(stream), true);
+			} else {
+				metadata = getOfflineMetadata(channel, priority);
+			}
+
+			if (metadata != null) {
+				result.put(channel, metadata);
+			}
+		});
 
-		final eu.over9000.cathode.data.Channel channelObject;
-		final Boolean online = stream.isOnline();
-		final Long uptime;
-		final Long viewer;
+		return result;
+	}
 
-		if (online) {
-			channelObject = stream.getStream().getChannel();
+	private static Map<String, Stream> getOnlineStreams(final Set<String> channelNames, final Priority priority) {
+		final Map<String, Stream> result = new HashMap<>(channelNames.size());
+		final GetStreamsOptions options = new GetStreamsOptions(channelNames);
+		final OffsetPagination pagination = new OffsetPagination();
 
-			uptime = getChannelUptime(stream.getStream());
-			viewer = stream.getStream().getViewers();
+		long total;
+		do {
+			if (!STREAMS_CIRCUIT.allowRequest()) {
+				LOGGER.debug("streams circuit open, skipping metadata of " + channelNames.size() + " streams");
+				return null;
+			}
 
-		} else {
-			final Result<eu.over9000.cathode.data.Channel> channelResponse = TwitchUtil.getTwitch().channels.getChannel(channel.getName());
-			if (!channelResponse.isOk()) {
-				LOGGER.error("Exception getting metadata for channel " + channel + ": " + channelResponse.getErrorRaw());
+			final Result<StreamList> streamsResponse = STREAMS_CIRCUIT.record(TwitchUtil.track(TwitchUtil.getTwitch(priority).streams.getStreams(options, pagination)));
+			if (!streamsResponse.isOk()) {
+				LOGGER.error("Exception getting metadata for " + channelNames.size() + " streams: " + streamsResponse.getErrorRaw());
 				return null;
 			}
 
-			channelObject = channelResponse.getResultRaw();
+			final StreamList currentBatch = streamsResponse.getResultRaw();
+
+			total = currentBatch.getTotal();
+			currentBatch.getStreams().forEach(stream -> result.put(stream.getChannel().getName().toLowerCase(), stream));
 
-			uptime = 0L;
-			viewer = 0L;
+			pagination.next(currentBatch);
+		} while (pagination.getOffset() < total);
+
+		return result;
+	}
+
+	private static ChannelMetadata getOfflineMetadata(final Channel channel, final Priority priority) {
+		final eu.over9000.cathode.data.Channel cached = CHANNEL_CACHE.get(channel.getName());
+		if (cached != null) {
+			return new ChannelMetadata(cached, 0L, 0L, false);
 		}
 
-		return new ChannelMetadata(channelObject, viewer, uptime, online);
+		final Result<eu.over9000.cathode.data.Channel> channelResponse = requestChannel(channel.getName(), priority);
+		if (channelResponse == null) {
+			return null;
+		}
+		if (!channelResponse.isOk()) {
+			LOGGER.error("Exception getting metadata for channel " + channel + ": " + channelResponse.getErrorRaw());
+			return null;
+		}
+
+		CHANNEL_CACHE.put(channel.getName(), channelResponse.getResultRaw());
+		return new ChannelMetadata(channelResponse.getResultRaw(), 0L, 0L, false);
+	}
 
+	/**
+	 * @return the response, or null if the channels circuit is open
+	 */
+	private static Result<eu.over9000.cathode.data.Channel> requestChannel(final String channel, final Priority priority) {
+		return CHANNEL_REQUESTS.execute(channel.toLowerCase(), () -> {
+			if (!CHANNELS_CIRCUIT.allowRequest()) {
+				return null;
+			}
+			return CHANNELS_CIRCUIT.record(TwitchUtil.track(TwitchUtil.getTwitch(priority).channels.getChannel(channel)));
+		});
 	}
 
 	private static long getChannelUptime(final Stream stream) {
@@ -86,8 +185,18 @@ public class ChannelDataRetriever {
 		return nowDate.getTime() - startDate.getTime();
 	}
 
-	public static boolean checkIfChannelExists(final String channel) {
-		return TwitchUtil.getTwitch().channels.getChannel(channel).isOk();
+	public static ChannelStatus checkChannel(final String channel) {
+		final Result<eu.over9000.cathode.data.Channel> channelResponse = requestChannel(channel, Priority.INTERACTIVE);
+		if (channelResponse == null) {
+			return ChannelStatus.UNAVAILABLE;
+		}
+		if (!channelResponse.isOk()) {
+			final int status = TwitchUtil.getHttpStatus(channelResponse);
+			return status == HTTP_NOT_FOUND || status == HTTP_UNPROCESSABLE_ENTITY ? ChannelStatus.MISSING : ChannelStatus.UNAVAILABLE;
+		}
+
+		CHANNEL_CACHE.put(channel, channelResponse.getResultRaw());
+		return ChannelStatus.EXISTS;
 	}
 
 }
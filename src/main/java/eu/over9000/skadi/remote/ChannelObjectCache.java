@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.remote;
+
+import eu.over9000.cathode.data.Channel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TTL based cache for the channel objects of the twitch API, keyed by lowercase channel name. Title, game, logo,
+ * followers and views of offline channels rarely change, so offline polls reuse the cached object instead of requesting
+ * it again every time.
+ */
+public class ChannelObjectCache {
+
+	private static final long DEFAULT_TTL = TimeUnit.MINUTES.toMillis(15);
+
+	private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+	private final long ttl;
+
+	public ChannelObjectCache() {
+		this(DEFAULT_TTL);
+	}
+
+	public ChannelObjectCache(final long ttl) {
+		this.ttl = ttl;
+	}
+
+	/**
+	 * @return the cached channel object, or null if there is none or it is older than the TTL
+	 */
+	public Channel get(final String name) {
+		final CacheEntry entry = entries.get(name.toLowerCase());
+		if (entry == null) {
+			return null;
+		}
+		if (System.currentTimeMillis() - entry.timestamp > ttl) {
+			entries.remove(name.toLowerCase(), entry);
+			return null;
+		}
+		return entry.channel;
+	}
+
+	public void put(final String name, final Channel channel) {
+		entries.put(name.toLowerCase(), new CacheEntry(channel, System.currentTimeMillis()));
+	}
+
+	private static class CacheEntry {
+		private final Channel channel;
+		private final long timestamp;
+
+		private CacheEntry(final Channel channel, final long timestamp) {
+			this.channel = channel;
+			this.timestamp = timestamp;
+		}
+	}
+}
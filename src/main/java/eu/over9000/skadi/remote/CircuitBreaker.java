@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.remote;
+
+import eu.over9000.cathode.Result;
+import eu.over9000.skadi.util.TwitchUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the failure rate of a Twitch API endpoint. When too many of the recent requests failed the circuit opens and
+ * requests are refused until the backoff has passed, then a single probe request decides whether the circuit closes
+ * again or stays open with a doubled backoff.
+ */
+public class CircuitBreaker {
+
+	public enum Endpoint {
+		STREAMS, CHANNELS, PANELS, EMOTICONS
+	}
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	public interface StateListener {
+		void onStateChange(Endpoint endpoint, State state, long retryIn);
+	}
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+	private static final int WINDOW_SIZE = 20;
+	private static final int MIN_CALLS = 5;
+	private static final double FAILURE_RATE_THRESHOLD = 0.5;
+	private static final long INITIAL_BACKOFF = TimeUnit.SECONDS.toMillis(5);
+	private static final long MAX_BACKOFF = TimeUnit.MINUTES.toMillis(5);
+	private static final long PROBE_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+	private static final int[] CLIENT_ERRORS = {400, 404, 422};
+
+	private static final Map<Endpoint, CircuitBreaker> BREAKERS = new EnumMap<>(Endpoint.class);
+	private static final List<StateListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+	static {
+		for (final Endpoint endpoint : Endpoint.values()) {
+			BREAKERS.put(endpoint, new CircuitBreaker(endpoint));
+		}
+	}
+
+	private final Endpoint endpoint;
+	private final LongSupplier clock;
+	private final boolean[] window = new boolean[WINDOW_SIZE];
+	private int windowIndex;
+	private int windowCount;
+	private int windowFailures;
+
+	private State state = State.CLOSED;
+	private long backoff = INITIAL_BACKOFF;
+	private long openUntil;
+	private long probeStarted;
+
+	private CircuitBreaker(final Endpoint endpoint) {
+		this(endpoint, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param clock
+	 * 		source of the current time in milliseconds
+	 */
+	CircuitBreaker(final Endpoint endpoint, final LongSupplier clock) {
+		this.endpoint = endpoint;
+		this.clock = clock;
+	}
+
+	public static CircuitBreaker get(final Endpoint endpoint) {
+		return BREAKERS.get(endpoint);
+	}
+
+	public static void addListener(final StateListener listener) {
+		LISTENERS.add(listener);
+	}
+
+	/**
+	 * @return whether a request would currently be permitted, without taking the probe slot of an open circuit
+	 */
+	public synchronized boolean isAvailable() {
+		final long now = clock.getAsLong();
+		switch (state) {
+			case OPEN:
+				return now >= openUntil;
+			case HALF_OPEN:
+				return now - probeStarted >= PROBE_TIMEOUT;
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * Asks for permission to send a request. Once the backoff of an open circuit has passed, exactly one caller is
+	 * permitted as probe, the outcome of every permitted request has to be reported by {@link #record(Result)}.
+	 */
+	public boolean allowRequest() {
+		final State changed;
+		synchronized (this) {
+			final long now = clock.getAsLong();
+			if (state == State.CLOSED) {
+				return true;
+			}
+			if (state == State.OPEN && now < openUntil) {
+				return false;
+			}
+			if (state == State.HALF_OPEN && now - probeStarted < PROBE_TIMEOUT) {
+				return false;
+			}
+			probeStarted = now;
+			changed = state == State.OPEN ? State.HALF_OPEN : null;
+			state = State.HALF_OPEN;
+		}
+		if (changed != null) {
+			notifyListeners(changed, 0);
+		}
+		return true;
+	}
+
+	public <T> Result<T> record(final Result<T> result) {
+		if (result.isOk() || isClientError(result)) {
+			onSuccess();
+		} else {
+			onFailure();
+		}
+		return result;
+	}
+
+	public void onSuccess() {
+		final boolean closed;
+		synchronized (this) {
+			if (state == State.OPEN) {
+				// late outcome of a request sent before the circuit opened
+				return;
+			}
+			closed = state == State.HALF_OPEN;
+			if (closed) {
+				state = State.CLOSED;
+				backoff = INITIAL_BACKOFF;
+				clearWindow();
+			} else {
+				addToWindow(false);
+			}
+		}
+		if (closed) {
+			LOGGER.info("circuit of " + endpoint + " endpoint closed");
+			notifyListeners(State.CLOSED, 0);
+		}
+	}
+
+	public void onFailure() {
+		final long retryIn;
+		synchronized (this) {
+			if (state == State.HALF_OPEN) {
+				backoff = Math.min(backoff * 2, MAX_BACKOFF);
+			} else if (state == State.CLOSED) {
+				addToWindow(true);
+				if (windowCount < MIN_CALLS || windowFailures < windowCount * FAILURE_RATE_THRESHOLD) {
+					return;
+				}
+			} else {
+				return;
+			}
+			state = State.OPEN;
+			openUntil = clock.getAsLong() + backoff;
+			retryIn = backoff;
+		}
+		LOGGER.warn("circuit of " + endpoint + " endpoint opened, retrying in " + retryIn + "ms");
+		notifyListeners(State.OPEN, retryIn);
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	private void addToWindow(final boolean failure) {
+		if (windowCount == WINDOW_SIZE) {
+			if (window[windowIndex]) {
+				windowFailures--;
+			}
+		} else {
+			windowCount++;
+		}
+		window[windowIndex] = failure;
+		if (failure) {
+			windowFailures++;
+		}
+		windowIndex = (windowIndex + 1) % WINDOW_SIZE;
+	}
+
+	private void clearWindow() {
+		windowIndex = 0;
+		windowCount = 0;
+		windowFailures = 0;
+	}
+
+	private void notifyListeners(final State state, final long retryIn) {
+		LISTENERS.forEach(listener -> listener.onStateChange(endpoint, state, retryIn));
+	}
+
+	/**
+	 * Errors caused by the request itself (e.g. an unknown channel) say nothing about the health of the endpoint.
+	 */
+	private static boolean isClientError(final Result<?> result) {
+		final int status = TwitchUtil.getHttpStatus(result);
+		for (final int clientError : CLIENT_ERRORS) {
+			if (status == clientError) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -22,78 +22,36 @@
 
 package eu.over9000.skadi.remote;
 
-import eu.over9000.cathode.Result;
 import eu.over9000.cathode.data.ChannelEmoticon;
-import eu.over9000.cathode.data.ChannelEmoticonList;
-import eu.over9000.skadi.service.ImageRetrievalService;
 import eu.over9000.skadi.ui.label.CopyableLabel;
-import eu.over9000.skadi.util.TwitchUtil;
 import javafx.geometry.Pos;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public class EmoteDataRetriever {
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(EmoteDataRetriever.class);
-
-	private static List<ChannelEmoticon> retrieveEmotes(final String channel) {
-		final List<ChannelEmoticon> result = new ArrayList<>();
-
-		final Result<ChannelEmoticonList> emoteResponse = TwitchUtil.getTwitch().chat.getEmoticons(channel);
-
-		if (!emoteResponse.isOk()) {
-			LOGGER.error("error getting emote data for " + channel + ": ", emoteResponse.getErrorRaw());
-			return result;
-		}
-
-		result.addAll(emoteResponse.getResultRaw().getEmoticons().stream().filter(ChannelEmoticon::isSubscriberOnly).collect(Collectors.toList()));
-
-		return result;
-	}
+	private static final EmoteRegistry EMOTE_REGISTRY = new EmoteRegistry();
 
 	public static List<HBox> buildEmotePanel(final String channel) {
-		final List<ChannelEmoticon> emotes = retrieveEmotes(channel);
-		final List<HBox> result = new ArrayList<>(emotes.size());
-		final CountDownLatch latch = new CountDownLatch(emotes.size());
+		final List<ChannelEmoticon> emotes = EMOTE_REGISTRY.getEmotes(channel);
+		final Map<ChannelEmoticon, Image> images = EMOTE_REGISTRY.getImages(emotes);
 
+		final List<HBox> result = new ArrayList<>(emotes.size());
 		emotes.forEach(emote -> {
-
-			final ImageRetrievalService imageService = new ImageRetrievalService(emote.getUrl());
-			imageService.setOnSucceeded(event -> {
-				final ImageView img = (ImageView) event.getSource().getValue();
-				final CopyableLabel lbl = new CopyableLabel(emote.getRegex());
-				final HBox box = new HBox(2, lbl, img);
-				box.setAlignment(Pos.CENTER_LEFT);
-				box.setStyle("-fx-background-color: -fx-control-inner-background");
-				result.add(box);
-				latch.countDown();
-			});
-			imageService.setOnFailed(event -> {
-				final CopyableLabel lbl = new CopyableLabel(emote.getRegex());
-				final HBox box = new HBox(2, lbl);
-				box.setStyle("-fx-background-color: -fx-control-inner-background");
-				box.setAlignment(Pos.CENTER_LEFT);
-				result.add(box);
-				latch.countDown();
-			});
-			imageService.start();
+			final CopyableLabel lbl = new CopyableLabel(emote.getRegex());
+			final Image image = images.get(emote);
+			final HBox box = image == null ? new HBox(2, lbl) : new HBox(2, lbl, new ImageView(image));
+			box.setAlignment(Pos.CENTER_LEFT);
+			box.setStyle("-fx-background-color: -fx-control-inner-background");
+			result.add(box);
 		});
 
-		try {
-			latch.await();
-		} catch (final InterruptedException e) {
-			LOGGER.error("error in emote list retrieval: ", e);
-		}
-
 		return result;
-
 	}
 
 }
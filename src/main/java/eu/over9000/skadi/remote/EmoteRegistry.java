@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.remote;
+
+import eu.over9000.cathode.Result;
+import eu.over9000.cathode.data.ChannelEmoticon;
+import eu.over9000.cathode.data.ChannelEmoticonList;
+import eu.over9000.skadi.remote.CircuitBreaker.Endpoint;
+import eu.over9000.skadi.util.ExecutorUtil;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
+import eu.over9000.skadi.util.ImageUtil;
+import eu.over9000.skadi.util.MetricsUtil;
+import eu.over9000.skadi.util.RateLimiter.Priority;
+import eu.over9000.skadi.util.SingleFlight;
+import eu.over9000.skadi.util.TwitchUtil;
+import javafx.scene.image.Image;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of the subscriber emotes of channels. The emoticon list of a channel is cached for a TTL, the emote images
+ * are cached by URL in the image cache. Only images that are not in memory are fetched, with bounded parallelism.
+ */
+public class EmoteRegistry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(EmoteRegistry.class);
+
+	private static final long DEFAULT_TTL = TimeUnit.HOURS.toMillis(1);
+	private static final int MAX_PARALLEL_FETCHES = 8;
+
+	private final Map<String, CacheEntry> emoteLists = new ConcurrentHashMap<>();
+	private final SingleFlight<String, List<ChannelEmoticon>> emoteRequests = new SingleFlight<>("emoticons");
+	private final CircuitBreaker circuit = CircuitBreaker.get(Endpoint.EMOTICONS);
+	private final long ttl;
+
+	public EmoteRegistry() {
+		this(DEFAULT_TTL);
+	}
+
+	public EmoteRegistry(final long ttl) {
+		this.ttl = ttl;
+	}
+
+	/**
+	 * @return the subscriber emotes of the given channel, empty if they could not be retrieved
+	 */
+	public List<ChannelEmoticon> getEmotes(final String channel) {
+		final String key = channel.toLowerCase();
+
+		final CacheEntry entry = emoteLists.get(key);
+		if (entry != null && System.currentTimeMillis() - entry.timestamp <= ttl) {
+			MetricsUtil.increment("emote.list.hit");
+			return entry.emotes;
+		}
+
+		MetricsUtil.increment("emote.list.miss");
+		final List<ChannelEmoticon> emotes = emoteRequests.execute(key, () -> requestEmotes(channel));
+		if (emotes == null) {
+			return Collections.emptyList();
+		}
+
+		emoteLists.put(key, new CacheEntry(emotes, System.currentTimeMillis()));
+		return emotes;
+	}
+
+	/**
+	 * Returns the images of the given emotes. Images in memory are returned immediately, the missing ones are fetched
+	 * with at most {@value #MAX_PARALLEL_FETCHES} parallel requests.
+	 *
+	 * @return the images by emote, emotes whose image could not be loaded are missing
+	 */
+	public Map<ChannelEmoticon, Image> getImages(final List<ChannelEmoticon> emotes) {
+		final Map<ChannelEmoticon, Image> result = new HashMap<>(emotes.size());
+		final List<ChannelEmoticon> missing = new ArrayList<>();
+
+		emotes.forEach(emote -> {
+			final Image cached = ImageUtil.getCachedImage(emote.getUrl());
+			if (cached != null) {
+				result.put(emote, cached);
+			} else {
+				missing.add(emote);
+			}
+		});
+
+		MetricsUtil.add("emote.image.hit", result.size());
+		MetricsUtil.add("emote.image.miss", missing.size());
+
+		for (int i = 0; i < missing.size(); i += MAX_PARALLEL_FETCHES) {
+			final List<ChannelEmoticon> batch = missing.subList(i, Math.min(i + MAX_PARALLEL_FETCHES, missing.size()));
+			final List<Callable<Image>> tasks = batch.stream().map(emote -> (Callable<Image>) () -> ImageUtil.getImageInternal(emote.getUrl())).collect(Collectors.toList());
+
+			try {
+				final List<Future<Image>> futures = ExecutorUtil.getExecutorService(Pool.IMAGE).invokeAll(tasks);
+				for (int j = 0; j < batch.size(); j++) {
+					final Image image = getQuietly(futures.get(j));
+					if (image != null) {
+						result.put(batch.get(j), image);
+					}
+				}
+			} catch (final InterruptedException e) {
+				LOGGER.error("interrupted while fetching emote images", e);
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		return result;
+	}
+
+	private List<ChannelEmoticon> requestEmotes(final String channel) {
+		if (!circuit.allowRequest()) {
+			LOGGER.debug("emoticons circuit open, skipping emotes of " + channel);
+			return null;
+		}
+
+		final Result<ChannelEmoticonList> emoteResponse = circuit.record(TwitchUtil.track(TwitchUtil.getTwitch(Priority.INTERACTIVE).chat.getEmoticons(channel)));
+
+		if (!emoteResponse.isOk()) {
+			LOGGER.error("error getting emote data for " + channel + ": ", emoteResponse.getErrorRaw());
+			return null;
+		}
+
+		return emoteResponse.getResultRaw().getEmoticons().stream().filter(ChannelEmoticon::isSubscriberOnly).collect(Collectors.toList());
+	}
+
+	private static Image getQuietly(final Future<Image> future) {
+		try {
+			return future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (final ExecutionException | CancellationException e) {
+			LOGGER.warn("failed to fetch emote image", e);
+			return null;
+		}
+	}
+
+	private static class CacheEntry {
+		private final List<ChannelEmoticon> emotes;
+		private final long timestamp;
+
+		private CacheEntry(final List<ChannelEmoticon> emotes, final long timestamp) {
+			this.emotes = emotes;
+			this.timestamp = timestamp;
+		}
+	}
+}
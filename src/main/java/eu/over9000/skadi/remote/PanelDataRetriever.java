@@ -26,7 +26,10 @@ import eu.over9000.cathode.Result;
 import eu.over9000.cathode.data.Panel;
 import eu.over9000.cathode.data.PanelData;
 import eu.over9000.cathode.data.PanelList;
+import eu.over9000.skadi.remote.CircuitBreaker.Endpoint;
 import eu.over9000.skadi.service.PanelConstructionService;
+import eu.over9000.skadi.util.RateLimiter.Priority;
+import eu.over9000.skadi.util.SingleFlight;
 import eu.over9000.skadi.util.TwitchUtil;
 import javafx.scene.layout.VBox;
 import org.slf4j.Logger;
@@ -40,10 +43,22 @@ public class PanelDataRetriever {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(PanelDataRetriever.class);
 
+	private static final SingleFlight<String, List<PanelData>> PANEL_REQUESTS = new SingleFlight<>("panels");
+	private static final CircuitBreaker PANELS_CIRCUIT = CircuitBreaker.get(Endpoint.PANELS);
+
 	private static List<PanelData> retrievePanels(final String channel) {
+		return PANEL_REQUESTS.execute(channel.toLowerCase(), () -> requestPanels(channel));
+	}
+
+	private static List<PanelData> requestPanels(final String channel) {
 		final List<PanelData> result = new ArrayList<>();
 
-		final Result<PanelList> panelResponse = TwitchUtil.getTwitch().undocumented.getPanels(channel);
+		if (!PANELS_CIRCUIT.allowRequest()) {
+			LOGGER.debug("panels circuit open, skipping panels of " + channel);
+			return result;
+		}
+
+		final Result<PanelList> panelResponse = PANELS_CIRCUIT.record(TwitchUtil.track(TwitchUtil.getTwitch(Priority.INTERACTIVE).undocumented.getPanels(channel)));
 
 		if (!panelResponse.isOk()) {
 			LOGGER.error("error getting panels data for " + channel + ": ", panelResponse.getErrorRaw());
@@ -71,6 +86,7 @@ public class PanelDataRetriever {
 			service.setOnFailed(event -> {
 				latch.countDown();
 			});
+			service.setOnCancelled(event -> latch.countDown());
 			service.start();
 		});
 
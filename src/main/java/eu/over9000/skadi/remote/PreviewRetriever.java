@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.remote;
+
+import eu.over9000.skadi.util.MetricsUtil;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Retrieves stream previews from the twitch CDN with conditional requests, so previews that did not change since the
+ * last committed retrieval are not downloaded again. The validators of a retrieval are only stored once it is
+ * committed, i.e. once the caller actually uses the preview.
+ */
+public class PreviewRetriever {
+
+	public static final int MAX_CONNECTIONS = 8;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PreviewRetriever.class);
+
+	private static final String PREVIEW_URL = "https://static-cdn.jtvnw.net/previews-ttv/live_user_%s-%dx%d.jpg";
+
+	private static final CloseableHttpClient httpClient = HttpClients.custom().setMaxConnPerRoute(MAX_CONNECTIONS).setMaxConnTotal(MAX_CONNECTIONS).build();
+
+	private static final Map<String, Validators> VALIDATORS = new ConcurrentHashMap<>();
+
+	/**
+	 * Downloads the preview unconditionally.
+	 *
+	 * @return the encoded preview, or null if it could not be retrieved
+	 */
+	public static byte[] retrievePreview(final String channel, final int width, final int height) {
+		final Preview preview = retrievePreview(channel, width, height, false);
+		return preview == null ? null : preview.getData();
+	}
+
+	/**
+	 * @param conditional whether to skip the download if the preview did not change since the last committed retrieval
+	 *                    of the same size
+	 * @return the preview, or null if it was skipped or could not be retrieved
+	 */
+	public static Preview retrievePreview(final String channel, final int width, final int height, final boolean conditional) {
+		final String url = buildURL(channel, width, height);
+		final HttpGet request = new HttpGet(url);
+
+		final Validators validators = conditional ? VALIDATORS.get(url) : null;
+		if (validators != null) {
+			if (validators.eTag != null) {
+				request.setHeader(HttpHeaders.IF_NONE_MATCH, validators.eTag);
+			}
+			if (validators.lastModified != null) {
+				request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, validators.lastModified);
+			}
+		}
+
+		try (CloseableHttpResponse response = httpClient.execute(request)) {
+			final int status = response.getStatusLine().getStatusCode();
+			if (status == HttpStatus.SC_NOT_MODIFIED) {
+				EntityUtils.consume(response.getEntity());
+				MetricsUtil.increment("preview.not_modified");
+				return null;
+			}
+			if (status != HttpStatus.SC_OK) {
+				EntityUtils.consume(response.getEntity());
+				LOGGER.warn("failed to retrieve preview of " + channel + ": " + response.getStatusLine());
+				return null;
+			}
+
+			final byte[] data = EntityUtils.toByteArray(response.getEntity());
+			MetricsUtil.increment("preview.downloaded");
+			MetricsUtil.add("preview.downloaded_bytes", data.length);
+			return new Preview(url, data, new Validators(getHeader(response, HttpHeaders.ETAG), getHeader(response, HttpHeaders.LAST_MODIFIED)));
+		} catch (final IOException e) {
+			LOGGER.error("exception retrieving preview of " + channel, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Forgets the validators of the given channel, so the next retrieval downloads the preview unconditionally.
+	 */
+	public static void forget(final String channel) {
+		final String prefix = buildURL(channel, 0, 0);
+		final String channelPrefix = prefix.substring(0, prefix.lastIndexOf('-') + 1);
+		VALIDATORS.keySet().removeIf(url -> url.startsWith(channelPrefix));
+	}
+
+	private static String buildURL(final String channel, final int width, final int height) {
+		return String.format(PREVIEW_URL, channel.toLowerCase(), width, height);
+	}
+
+	private static String getHeader(final CloseableHttpResponse response, final String name) {
+		final Header header = response.getFirstHeader(name);
+		return header == null ? null : header.getValue();
+	}
+
+	public static class Preview {
+		private final String url;
+		private final byte[] data;
+		private final Validators validators;
+
+		private Preview(final String url, final byte[] data, final Validators validators) {
+			this.url = url;
+			this.data = data;
+			this.validators = validators;
+		}
+
+		public byte[] getData() {
+			return data;
+		}
+
+		/**
+		 * Stores the validators of this preview, so the next conditional retrieval skips the download if the preview did
+		 * not change.
+		 */
+		public void commit() {
+			VALIDATORS.put(url, validators);
+		}
+	}
+
+	private static class Validators {
+		private final String eTag;
+		private final String lastModified;
+
+		private Validators(final String eTag, final String lastModified) {
+			this.eTag = eTag;
+			this.lastModified = lastModified;
+		}
+	}
+}
@@ -23,6 +23,7 @@
 package eu.over9000.skadi.remote.data;
 
 import eu.over9000.cathode.data.Channel;
+import eu.over9000.skadi.model.ChannelField;
 
 public class ChannelMetadata {
 	private final String title;
@@ -47,6 +48,55 @@ public class ChannelMetadata {
 		this.partner = channel.isPartner();
 	}
 
+	public ChannelMetadata(final String title, final Long viewer, final Long uptime, final Boolean online, final String game, final String logoURL, final Long followers, final Long views, final Boolean partner) {
+		this.title = title;
+		this.viewer = viewer;
+		this.uptime = uptime;
+		this.online = online;
+		this.game = game;
+		this.logoURL = logoURL;
+		this.followers = followers;
+		this.views = views;
+		this.partner = partner;
+	}
+
+	/**
+	 * Compares this metadata with the current state of the given channel.
+	 *
+	 * @return a mask of the {@link ChannelField}s that would change when applying this metadata
+	 */
+	public int diff(final eu.over9000.skadi.model.Channel channel) {
+		int changes = 0;
+		if (hasTitle() && !title.equals(channel.getTitle())) {
+			changes |= ChannelField.TITLE.mask();
+		}
+		if (hasOnline() && !online.equals(channel.isOnline())) {
+			changes |= ChannelField.ONLINE.mask();
+		}
+		if (hasViewer() && viewer != channel.getViewer()) {
+			changes |= ChannelField.VIEWER.mask();
+		}
+		if (hasGame() && !game.equals(channel.getGame())) {
+			changes |= ChannelField.GAME.mask();
+		}
+		if (hasUptime() && uptime != channel.getUptime()) {
+			changes |= ChannelField.UPTIME.mask();
+		}
+		if (hasLogoURL() && !logoURL.equals(channel.getLogoURL())) {
+			changes |= ChannelField.LOGO_URL.mask();
+		}
+		if (hasFollowers() && followers != channel.getFollowers()) {
+			changes |= ChannelField.FOLLOWERS.mask();
+		}
+		if (hasViews() && views != channel.getViews()) {
+			changes |= ChannelField.VIEWS.mask();
+		}
+		if (hasPartner() && !partner.equals(channel.getPartner())) {
+			changes |= ChannelField.PARTNER.mask();
+		}
+		return changes;
+	}
+
 	// -------------------------------
 	public boolean hasTitle() {
 		return title != null;
@@ -24,11 +24,16 @@ package eu.over9000.skadi.service;
 
 
 import eu.over9000.skadi.util.ExecutorUtil;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
 import javafx.concurrent.Service;
 
 public abstract class AbstractSkadiService<T> extends Service<T> {
 
 	public AbstractSkadiService() {
-		setExecutor(ExecutorUtil.getExecutorService());
+		this(Pool.DEFAULT);
+	}
+
+	public AbstractSkadiService(final Pool pool) {
+		setExecutor(ExecutorUtil.getExecutorService(pool));
 	}
 }
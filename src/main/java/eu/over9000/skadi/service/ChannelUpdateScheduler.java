@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.service;
+
+import eu.over9000.skadi.model.Channel;
+import eu.over9000.skadi.model.ChannelUpdateQueue;
+import eu.over9000.skadi.remote.ChannelDataRetriever;
+import eu.over9000.skadi.remote.CircuitBreaker;
+import eu.over9000.skadi.remote.CircuitBreaker.Endpoint;
+import eu.over9000.skadi.remote.data.ChannelMetadata;
+import eu.over9000.skadi.service.helper.AdaptivePollingPolicy;
+import eu.over9000.skadi.service.helper.ChannelPollState;
+import eu.over9000.skadi.service.helper.PollingPolicy;
+import eu.over9000.skadi.util.ExecutorUtil;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
+import eu.over9000.skadi.util.RateLimiter.Priority;
+import javafx.application.Platform;
+import javafx.concurrent.ScheduledService;
+import javafx.concurrent.Task;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single scheduler that polls all registered channels. Channels that are due on a tick are grouped into batches, each
+ * batch is retrieved with one streams request and the results are handed to the {@link ChannelUpdateQueue}. How often
+ * a channel is due is decided by the {@link PollingPolicy}.
+ * <p>
+ * The first poll of each channel is spread across the polling interval and every reschedule is jittered, so the
+ * request rate stays flat instead of polling every channel in the same second.
+ */
+public class ChannelUpdateScheduler extends ScheduledService<Map<Channel, ChannelMetadata>> {
+
+	private static final int TICK_INTERVAL = 5;
+	private static final double GOLDEN_RATIO_CONJUGATE = 0.6180339887498949;
+	private static final double RESCHEDULE_JITTER = 0.05;
+	private static final Logger LOGGER = LoggerFactory.getLogger(ChannelUpdateScheduler.class);
+
+	private final Map<Channel, ChannelPollState> pollStates = new ConcurrentHashMap<>();
+	private final ChannelUpdateQueue updateQueue;
+	private volatile PollingPolicy pollingPolicy = new AdaptivePollingPolicy();
+	private double phase = ThreadLocalRandom.current().nextDouble();
+
+	public ChannelUpdateScheduler(final ChannelUpdateQueue updateQueue) {
+		this.updateQueue = updateQueue;
+		setExecutor(ExecutorUtil.getExecutorService(Pool.POLL));
+		setPeriod(Duration.seconds(TICK_INTERVAL));
+		setRestartOnFailure(true);
+		setOnSucceeded(event -> showIntervals(getValue().keySet()));
+		setOnFailed(event -> LOGGER.error("scheduled channel updater failed", event.getSource().getException()));
+	}
+
+	public void register(final Channel channel) {
+		final long interval = pollingPolicy.getInitialInterval();
+		pollStates.put(channel, new ChannelPollState(interval, System.currentTimeMillis() + nextPhaseOffset(interval)));
+		channel.setUpdateInterval(interval);
+	}
+
+	public void unregister(final Channel channel) {
+		pollStates.remove(channel);
+	}
+
+	/**
+	 * Snaps the interval of the given channel back to the initial interval of the polling policy, used when a channel is
+	 * selected or refreshed manually.
+	 */
+	public void reset(final Channel channel) {
+		final ChannelPollState state = pollStates.get(channel);
+		if (state == null) {
+			return;
+		}
+
+		final long interval = pollingPolicy.getInitialInterval();
+		final long offset = nextPhaseOffset(interval);
+		synchronized (state) {
+			state.setInterval(interval);
+			state.setNextUpdate(Math.min(state.getNextUpdate(), System.currentTimeMillis() + offset));
+		}
+		channel.setUpdateInterval(interval);
+	}
+
+	/**
+	 * Marks the given channel as selected, the selected channel is reset and not backed off while it stays selected.
+	 *
+	 * @param channel the selected channel, or null if the selection was cleared
+	 */
+	public void setSelected(final Channel channel) {
+		pollStates.forEach((other, state) -> {
+			synchronized (state) {
+				state.setSelected(other.equals(channel));
+			}
+		});
+
+		if (channel != null) {
+			reset(channel);
+		}
+	}
+
+	/**
+	 * Reschedules channels that were polled outside of the scheduler (forced refresh) as if the scheduler polled them now.
+	 */
+	public void reschedule(final Map<Channel, ChannelMetadata> result) {
+		updatePollStates(result, System.currentTimeMillis());
+		Platform.runLater(() -> showIntervals(result.keySet()));
+	}
+
+	private void showIntervals(final Collection<Channel> channels) {
+		channels.forEach(channel -> {
+			final long interval = getUpdateInterval(channel);
+			if (interval >= 0) {
+				channel.setUpdateInterval(interval);
+			}
+		});
+	}
+
+	public void resetAll() {
+		pollStates.keySet().forEach(this::reset);
+	}
+
+	/**
+	 * @return the current polling interval of the given channel in milliseconds, or -1 if it is not registered
+	 */
+	public long getUpdateInterval(final Channel channel) {
+		final ChannelPollState state = pollStates.get(channel);
+		if (state == null) {
+			return -1;
+		}
+		synchronized (state) {
+			return state.getInterval();
+		}
+	}
+
+	public PollingPolicy getPollingPolicy() {
+		return pollingPolicy;
+	}
+
+	public void setPollingPolicy(final PollingPolicy pollingPolicy) {
+		this.pollingPolicy = pollingPolicy;
+		resetAll();
+	}
+
+	/**
+	 * Returns offsets that are evenly distributed over the interval for any number of consecutive calls (golden ratio
+	 * sequence starting at a random phase), with some additional random jitter.
+	 */
+	private synchronized long nextPhaseOffset(final long interval) {
+		phase = (phase + GOLDEN_RATIO_CONJUGATE) % 1.0;
+		final long slotJitter = TimeUnit.SECONDS.toMillis(TICK_INTERVAL);
+		final long offset = (long) (phase * interval) + ThreadLocalRandom.current().nextLong(-slotJitter, slotJitter + 1);
+		return Math.max(0, Math.min(interval, offset));
+	}
+
+	private static long jitter(final long interval) {
+		final long maxJitter = (long) (interval * RESCHEDULE_JITTER);
+		return interval + ThreadLocalRandom.current().nextLong(-maxJitter, maxJitter + 1);
+	}
+
+	private List<Channel> collectDueChannels(final long now) {
+		final List<Channel> due = new ArrayList<>();
+		pollStates.forEach((channel, state) -> {
+			synchronized (state) {
+				if (state.getNextUpdate() <= now) {
+					state.setNextUpdate(now + jitter(state.getInterval()));
+					due.add(channel);
+				}
+			}
+		});
+		return due;
+	}
+
+	private void updatePollStates(final Map<Channel, ChannelMetadata> result, final long now) {
+		result.forEach((channel, metadata) -> {
+			final ChannelPollState state = pollStates.get(channel);
+			if (state == null) {
+				return;
+			}
+
+			synchronized (state) {
+				state.updateOnline(metadata.getOnline(), now);
+				final long interval = pollingPolicy.getNextInterval(state, now);
+				if (interval != state.getInterval()) {
+					LOGGER.debug("update interval of " + channel.getName() + " changed to " + interval + "ms");
+				}
+				state.setInterval(interval);
+				state.setNextUpdate(now + jitter(interval));
+			}
+		});
+	}
+
+	@Override
+	protected Task<Map<Channel, ChannelMetadata>> createTask() {
+		return new Task<Map<Channel, ChannelMetadata>>() {
+
+			@Override
+			protected Map<Channel, ChannelMetadata> call() throws Exception {
+				if (!CircuitBreaker.get(Endpoint.STREAMS).isAvailable()) {
+					return Collections.emptyMap();
+				}
+
+				final long now = System.currentTimeMillis();
+				final List<Channel> due = collectDueChannels(now);
+				if (due.isEmpty()) {
+					return Collections.emptyMap();
+				}
+
+				final List<Callable<Map<Channel, ChannelMetadata>>> tasks = new ArrayList<>();
+				ChannelDataRetriever.toBatches(due).forEach(batch -> tasks.add(() -> ChannelDataRetriever.getChannelMetadata(batch, Priority.BACKGROUND)));
+
+				final Map<Channel, ChannelMetadata> result = new HashMap<>(due.size());
+				for (final Future<Map<Channel, ChannelMetadata>> future : ExecutorUtil.getExecutorService(Pool.POLL_BATCH).invokeAll(tasks)) {
+					result.putAll(future.get());
+				}
+
+				updateQueue.enqueue(result);
+
+				updatePollStates(result, now);
+
+				LOGGER.trace("polled " + due.size() + " channels in " + tasks.size() + " batches");
+				return result;
+			}
+		};
+	}
+}
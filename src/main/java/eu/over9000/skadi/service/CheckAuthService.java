@@ -24,6 +24,8 @@ package eu.over9000.skadi.service;
 
 import eu.over9000.cathode.Result;
 import eu.over9000.cathode.data.RootBox;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
+import eu.over9000.skadi.util.RateLimiter.Priority;
 import eu.over9000.skadi.util.TwitchUtil;
 import javafx.concurrent.Task;
 import org.slf4j.Logger;
@@ -33,13 +35,17 @@ public class CheckAuthService extends AbstractSkadiService<RootBox> {
 
 	private final static Logger LOGGER = LoggerFactory.getLogger(CheckAuthService.class);
 
+	public CheckAuthService() {
+		super(Pool.SYNC);
+	}
+
 	@Override
 	protected Task<RootBox> createTask() {
 		return new Task<RootBox>() {
 			@Override
 			protected RootBox call() throws Exception {
 
-				final Result<RootBox> result = TwitchUtil.getTwitch().root.getRoot();
+				final Result<RootBox> result = TwitchUtil.track(TwitchUtil.getTwitch(Priority.INTERACTIVE).root.getRoot());
 
 				if (result.isOk()) {
 					return result.getResultRaw();
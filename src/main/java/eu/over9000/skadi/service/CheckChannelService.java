@@ -22,50 +22,28 @@
 
 package eu.over9000.skadi.service;
 
-import eu.over9000.skadi.util.ImageUtil;
+import eu.over9000.skadi.remote.ChannelDataRetriever;
+import eu.over9000.skadi.remote.ChannelDataRetriever.ChannelStatus;
 import javafx.concurrent.Task;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 
-public class ImageRetrievalService extends AbstractSkadiService<ImageView> {
-
-	private final String url;
-	private int width;
-	private int height;
-	private boolean resize = false;
+/**
+ * Checks in the background whether a channel exists, the request may wait for the API rate limiter.
+ */
+public class CheckChannelService extends AbstractSkadiService<ChannelStatus> {
 
-	public ImageRetrievalService(final String url) {
-		this.url = url;
-	}
+	private final String channel;
 
-	public ImageRetrievalService(final String url, final int width, final int height) {
-		this.url = url;
-		this.width = width;
-		this.height = height;
-		resize = true;
+	public CheckChannelService(final String channel) {
+		this.channel = channel;
 	}
 
 	@Override
-	protected Task<ImageView> createTask() {
-		return new Task<ImageView>() {
-
+	protected Task<ChannelStatus> createTask() {
+		return new Task<ChannelStatus>() {
 			@Override
-			protected ImageView call() throws Exception {
-				final Image img = ImageUtil.getImageInternal(url);
-
-				final ImageView iv = new ImageView(img);
-
-				if (resize) {
-					iv.setFitHeight(height);
-					iv.setFitWidth(width);
-				}
-
-				iv.setSmooth(true);
-				iv.setCache(true);
-				return iv;
+			protected ChannelStatus call() throws Exception {
+				return ChannelDataRetriever.checkChannel(channel);
 			}
 		};
 	}
-
-
 }
@@ -22,14 +22,18 @@
 
 package eu.over9000.skadi.service;
 
+import eu.over9000.skadi.io.ViewerHistoryStore;
+import eu.over9000.skadi.io.ViewerHistoryStore.Sample;
 import eu.over9000.skadi.model.Channel;
 import eu.over9000.skadi.remote.EmoteDataRetriever;
 import eu.over9000.skadi.remote.PanelDataRetriever;
 import eu.over9000.skadi.ui.ChannelDetailPaneContent;
 import eu.over9000.skadi.util.DesktopUtil;
 import eu.over9000.skadi.util.ExecutorUtil;
-import eu.over9000.skadi.util.ImageUtil;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
 import eu.over9000.skadi.util.StringUtil;
+import eu.over9000.skadi.util.TimeUtil;
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.concurrent.Task;
 import javafx.scene.chart.LineChart;
@@ -40,15 +44,24 @@ import javafx.scene.layout.VBox;
 import java.text.NumberFormat;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class DetailPaneUpdateService extends AbstractSkadiService<Void> {
 
+	/**
+	 * Time range of the persisted viewer history shown in the chart.
+	 */
+	private static final long HISTORY_RANGE = TimeUnit.HOURS.toMillis(24);
+
 	private final Channel channel;
 	private final ChannelDetailPaneContent content;
+	private final ViewerHistoryStore historyStore;
 
-	public DetailPaneUpdateService(final Channel channel, final ChannelDetailPaneContent content) {
+	public DetailPaneUpdateService(final Channel channel, final ChannelDetailPaneContent content, final ViewerHistoryStore historyStore) {
 		this.channel = channel;
 		this.content = content;
+		this.historyStore = historyStore;
 	}
 
 	@Override
@@ -66,7 +79,6 @@ public class DetailPaneUpdateService extends AbstractSkadiService<Void> {
 				content.getLbCurr().textProperty().bind(Bindings.createStringBinding(() -> "current viewers: " + formatter.format(channel.getViewer()), channel.viewerProperty()));
 				content.getLbAvg().textProperty().bind(Bindings.createStringBinding(() -> "average viewers: " + formatter.format(channel.getViewerHistoryAverage()), channel.viewerHistoryAverageProperty()));
 
-				content.getLbGame().graphicProperty().bind(Bindings.createObjectBinding(() -> ImageUtil.getGameBoxFromTwitch(channel.getGame()), channel.gameProperty()));
 				content.getLbGame().tooltipProperty().bind(Bindings.createObjectBinding(() -> new Tooltip(channel.getGame()), channel.gameProperty()));
 
 				content.getLbFollowers().textProperty().bind(Bindings.createStringBinding(() -> "followers: " + formatter.format(channel.getFollowers()), channel.followersProperty()));
@@ -75,23 +87,46 @@ public class DetailPaneUpdateService extends AbstractSkadiService<Void> {
 
 				content.getLbPartner().textProperty().bind(Bindings.createStringBinding(() -> "partner: " + (channel.getPartner() ? "yes" : "no"), channel.partnerProperty()));
 
-				content.getIvPreview().imageProperty().bind(Bindings.createObjectBinding(channel::getPreview, channel.previewProperty()));
+				content.getLbUpdateInterval().textProperty().bind(Bindings.createStringBinding(() -> "update interval: " + TimeUtil.getDurationBreakdown(channel.getUpdateInterval(), false), channel.updateIntervalProperty()));
 
 				content.getBtOpenInBrowser().setOnAction(event -> DesktopUtil.openWebpage(StringUtil.toStreamURL(channel)));
 
 				content.getViewerChart().getData().clear();
 				content.getViewerChart().getData().add(new LineChart.Series<>("viewers", channel.getViewerHistory()));
 
-				content.getLbLogo().graphicProperty().bind(Bindings.createObjectBinding(() -> ImageUtil.getChannelLogo(channel.getLogoURL()), channel.logoURLProperty()));
+				Platform.runLater(() -> {
+					content.getLogoImage().bindSource(channel.logoURLProperty());
+					content.getGameImage().bindSource(channel.gameProperty());
+					// the preview of the grid is shown until the larger one is loaded
+					content.getPreviewImage().load(Boolean.TRUE.equals(channel.isOnline()) ? channel.getName() : null, channel.getPreview());
+				});
+
+				if (!channel.isHistoryLoaded()) {
+					final long now = System.currentTimeMillis();
+					final List<Sample> history = historyStore.query(channel.getName(), now - HISTORY_RANGE, now);
+					Platform.runLater(() -> mergeHistory(channel, history));
+				}
 
 				content.getPanelPane().getChildren().clear();
 				content.getEmotePane().getChildren().clear();
 
-				final Future<List<VBox>> panelsFuture = ExecutorUtil.getExecutorService().submit(() -> PanelDataRetriever.buildPanels(channel.getName()));
-				final Future<List<HBox>> emotesFuture = ExecutorUtil.getExecutorService().submit(() -> EmoteDataRetriever.buildEmotePanel(channel.getName()));
+				final Future<List<VBox>> panelsFuture = ExecutorUtil.getExecutorService(Pool.PANEL).submit(() -> PanelDataRetriever.buildPanels(channel.getName()));
+				final Future<List<HBox>> emotesFuture = ExecutorUtil.getExecutorService(Pool.PANEL).submit(() -> EmoteDataRetriever.buildEmotePanel(channel.getName()));
 
-				final List<VBox> panels = panelsFuture.get();
-				final List<HBox> emotes = emotesFuture.get();
+				final List<VBox> panels;
+				final List<HBox> emotes;
+				try {
+					panels = panelsFuture.get();
+					emotes = emotesFuture.get();
+				} finally {
+					// no-op if done, stops the builders if the service was cancelled for another channel
+					panelsFuture.cancel(true);
+					emotesFuture.cancel(true);
+				}
+
+				if (isCancelled()) {
+					return null;
+				}
 
 				panels.forEach(panel -> content.getPanelPane().getChildren().add(panel));
 				emotes.forEach(box -> content.getEmotePane().getChildren().add(box));
@@ -100,4 +135,20 @@ public class DetailPaneUpdateService extends AbstractSkadiService<Void> {
 			}
 		};
 	}
+
+	/**
+	 * Prepends the persisted samples older than the first sample of this session to the viewer history of the channel.
+	 */
+	private static void mergeHistory(final Channel channel, final List<Sample> history) {
+		if (channel.isHistoryLoaded()) {
+			return;
+		}
+		channel.setHistoryLoaded(true);
+
+		final List<LineChart.Data<Number, Number>> session = channel.getViewerHistory();
+		final long sessionStart = session.isEmpty() ? Long.MAX_VALUE : session.get(0).getXValue().longValue();
+
+		final List<LineChart.Data<Number, Number>> older = history.stream().filter(sample -> sample.getTimestamp() < sessionStart).map(sample -> new LineChart.Data<Number, Number>(sample.getTimestamp(), sample.getViewers())).collect(Collectors.toList());
+		channel.getViewerHistory().addAll(0, older);
+	}
 }
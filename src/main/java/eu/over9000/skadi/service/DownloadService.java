@@ -22,6 +22,7 @@
 
 package eu.over9000.skadi.service;
 
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
 import eu.over9000.skadi.util.StringUtil;
 import javafx.concurrent.Task;
 import org.apache.http.HttpResponse;
@@ -48,6 +49,7 @@ public class DownloadService extends AbstractSkadiService<File> {
 	private final File localFile;
 
 	public DownloadService(final String remoteUrl, final File localFile) {
+		super(Pool.DOWNLOAD);
 		httpClient = HttpClientBuilder.create().setSSLHostnameVerifier(new DefaultHostnameVerifier()).build();
 
 		this.remoteUrl = remoteUrl;
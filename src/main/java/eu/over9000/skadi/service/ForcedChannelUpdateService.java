@@ -25,20 +25,22 @@ package eu.over9000.skadi.service;
 import eu.over9000.skadi.model.Channel;
 import eu.over9000.skadi.model.ChannelStore;
 import eu.over9000.skadi.remote.ChannelDataRetriever;
+import eu.over9000.skadi.remote.CircuitBreaker;
+import eu.over9000.skadi.remote.CircuitBreaker.Endpoint;
 import eu.over9000.skadi.remote.data.ChannelMetadata;
 import eu.over9000.skadi.ui.StatusBarWrapper;
 import eu.over9000.skadi.util.ExecutorUtil;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
+import eu.over9000.skadi.util.RateLimiter.Priority;
 import eu.over9000.skadi.util.TimeUtil;
-import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.scene.control.Button;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -49,6 +51,7 @@ public class ForcedChannelUpdateService extends AbstractSkadiService<Void> {
 	private final ChannelStore channelStore;
 
 	public ForcedChannelUpdateService(final ChannelStore channelStore, final StatusBarWrapper statusBar, final Button refresh) {
+		super(Pool.POLL);
 		this.channelStore = channelStore;
 
 		statusBar.progressProperty().bind(progressProperty());
@@ -71,35 +74,33 @@ public class ForcedChannelUpdateService extends AbstractSkadiService<Void> {
 
 			@Override
 			protected Void call() throws Exception {
+				if (!CircuitBreaker.get(Endpoint.STREAMS).isAvailable()) {
+					updateMessage("Twitch API unavailable, refresh skipped");
+					return null;
+				}
+
 				updateMessage("preparing channel refresh..");
 
 				final long start = System.currentTimeMillis();
 				final List<Channel> channels = new ArrayList<>(channelStore.getChannels());
 
-				final Set<Callable<Void>> tasks = new HashSet<>();
-				for (int i = 0; i < channels.size(); i++) {
-
-					final Channel toUpdate = channels.get(i);
+				// offline channels reuse their cached channel objects until the TTL, only the streams are requested again
+				final List<Callable<Void>> tasks = new ArrayList<>();
+				for (final List<Channel> batch : ChannelDataRetriever.toBatches(channels)) {
 					tasks.add(() -> {
-						final ChannelMetadata updated = ChannelDataRetriever.getChannelMetadata(toUpdate);
-						if (updated != null) {
-
-							Platform.runLater(() -> {
-								synchronized (toUpdate) {
-
-									toUpdate.updateFrom(updated);
-								}
-							});
-						}
-						final int finished = counter.incrementAndGet();
-						updateMessage("Refreshed channel " + (finished + 1) + " of " + channels.size());
+						final Map<Channel, ChannelMetadata> updated = ChannelDataRetriever.getChannelMetadata(batch, Priority.BULK);
+
+						channelStore.getUpdateQueue().enqueue(updated);
+						channelStore.getUpdateScheduler().reschedule(updated);
+
+						final int finished = counter.addAndGet(batch.size());
+						updateMessage("Refreshed channel " + finished + " of " + channels.size());
 						updateProgress(finished, channels.size());
 						return null;
 					});
-
 				}
 
-				ExecutorUtil.getExecutorService().invokeAll(tasks);
+				ExecutorUtil.getExecutorService(Pool.POLL_BATCH).invokeAll(tasks);
 
 				final long duration = System.currentTimeMillis() - start;
 				updateMessage("Refreshed " + channels.size() + " channels in " + TimeUtil.getDurationBreakdown(duration, true));
@@ -23,6 +23,7 @@
 package eu.over9000.skadi.service;
 
 import eu.over9000.cathode.data.PanelData;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
 import eu.over9000.skadi.util.PanelUtil;
 import javafx.concurrent.Task;
 import javafx.scene.layout.VBox;
@@ -31,6 +32,7 @@ public class PanelConstructionService extends AbstractSkadiService<VBox> {
 	private final PanelData panel;
 
 	public PanelConstructionService(final PanelData panel) {
+		super(Pool.IMAGE);
 		this.panel = panel;
 	}
 
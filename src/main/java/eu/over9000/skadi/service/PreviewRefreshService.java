@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.service;
+
+import eu.over9000.skadi.model.Channel;
+import eu.over9000.skadi.remote.PreviewRetriever;
+import eu.over9000.skadi.util.ExecutorUtil;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
+import eu.over9000.skadi.util.HashUtil;
+import eu.over9000.skadi.util.ImageDecoder;
+import eu.over9000.skadi.util.ImageDecoder.Priority;
+import eu.over9000.skadi.util.MetricsUtil;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.concurrent.ScheduledService;
+import javafx.concurrent.Task;
+import javafx.scene.image.Image;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Refreshes the stream previews of online channels on its own interval, independent of the metadata polls. A channel
+ * gets its first preview as soon as it comes online, offline channels drop their preview.
+ * <p>
+ * Previews are only retrieved while they are displayed (grid view), in the smallest size that covers the display width
+ * and decoded at the display width. Only channels in the viewport of the grid are refreshed, previews of channels that
+ * left the viewport are kept in a bounded LRU and released from the channel when evicted. Since only visible channels
+ * are refreshed, previews are decoded with the highest priority. Pending refreshes of channels that left the viewport
+ * are dropped before the download, or before the decode if the download already started.
+ * <p>
+ * Refreshes are conditional only while the channel shows a preview decoded at the current width. The content hash and
+ * the validators of a retrieval are committed together once the preview is applied on the JavaFX thread, so a dropped
+ * retrieval never turns the next refresh into a 304 without a preview to keep.
+ */
+public class PreviewRefreshService extends ScheduledService<Void> {
+
+	/**
+	 * Preview sizes (width, height) provided by the CDN, ascending.
+	 */
+	private static final int[][] PREVIEW_SIZES = {{80, 45}, {320, 180}, {640, 360}};
+	private static final int OFFSCREEN_CAPACITY = 64;
+	private static final Logger LOGGER = LoggerFactory.getLogger(PreviewRefreshService.class);
+
+	// only accessed on the JavaFX thread
+	private final Map<Channel, ChangeListener<Boolean>> onlineListeners = new HashMap<>();
+	private final Set<Channel> viewport = new HashSet<>();
+	private final Map<Channel, Boolean> offscreen = new LinkedHashMap<Channel, Boolean>(OFFSCREEN_CAPACITY, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Channel, Boolean> eldest) {
+			if (size() > OFFSCREEN_CAPACITY) {
+				PreviewRefreshService.this.clear(eldest.getKey());
+				MetricsUtil.increment("preview.evicted");
+				return true;
+			}
+			return false;
+		}
+	};
+
+	// the previews that are currently applied, written on the JavaFX thread
+	private final Map<Channel, AppliedPreview> applied = new ConcurrentHashMap<>();
+	// copy of the viewport that is read by the refresh threads
+	private final Set<Channel> visible = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean enabled = false;
+	private volatile int displayWidth = PREVIEW_SIZES[PREVIEW_SIZES.length - 1][0];
+
+	public PreviewRefreshService(final long refreshInterval) {
+		setExecutor(ExecutorUtil.getExecutorService(Pool.POLL));
+		setDelay(Duration.ZERO);
+		setRefreshInterval(refreshInterval);
+		setRestartOnFailure(true);
+		setOnFailed(event -> LOGGER.error("preview refresher failed", event.getSource().getException()));
+	}
+
+	/**
+	 * @param refreshInterval the refresh interval in seconds
+	 */
+	public void setRefreshInterval(final long refreshInterval) {
+		setPeriod(Duration.seconds(refreshInterval));
+	}
+
+	/**
+	 * Enables or disables the previews, disabling drops all previews to free their memory.
+	 */
+	public void setEnabled(final boolean enabled) {
+		if (this.enabled == enabled) {
+			return;
+		}
+		this.enabled = enabled;
+
+		if (enabled) {
+			refreshAll();
+		} else {
+			onlineListeners.keySet().forEach(this::clear);
+			offscreen.clear();
+		}
+	}
+
+	/**
+	 * Sets the channels that are displayed (or about to be displayed) by the grid. Channels entering the viewport
+	 * without a preview get one immediately, channels leaving it move to the offscreen LRU.
+	 */
+	public void setViewport(final Set<Channel> channels) {
+		viewport.forEach(channel -> {
+			if (!channels.contains(channel) && channel.getPreview() != null) {
+				offscreen.put(channel, Boolean.TRUE);
+			}
+		});
+
+		viewport.clear();
+		viewport.addAll(channels);
+		visible.retainAll(channels);
+		visible.addAll(channels);
+
+		viewport.forEach(channel -> {
+			offscreen.remove(channel);
+			if (Boolean.TRUE.equals(channel.isOnline()) && channel.getPreview() == null) {
+				refresh(channel);
+			}
+		});
+	}
+
+	/**
+	 * Sets the width previews are displayed with. If a different preview size is needed for the new width, all previews
+	 * are refreshed immediately, otherwise the new width is used from the next refresh on.
+	 */
+	public void setDisplayWidth(final double width) {
+		final int[] previousSize = selectSize(displayWidth);
+		displayWidth = (int) Math.ceil(width);
+
+		if (enabled && selectSize(displayWidth) != previousSize) {
+			refreshAll();
+		}
+	}
+
+	private void refreshAll() {
+		if (isRunning()) {
+			restart();
+		}
+	}
+
+	public void register(final Channel channel) {
+		final ChangeListener<Boolean> listener = (observable, oldValue, newValue) -> {
+			if (Boolean.TRUE.equals(newValue)) {
+				if (viewport.contains(channel)) {
+					refresh(channel);
+				}
+			} else {
+				offscreen.remove(channel);
+				clear(channel);
+			}
+		};
+		onlineListeners.put(channel, listener);
+		channel.onlineProperty().addListener(listener);
+	}
+
+	public void unregister(final Channel channel) {
+		final ChangeListener<Boolean> listener = onlineListeners.remove(channel);
+		if (listener != null) {
+			channel.onlineProperty().removeListener(listener);
+		}
+		viewport.remove(channel);
+		visible.remove(channel);
+		offscreen.remove(channel);
+		applied.remove(channel);
+		PreviewRetriever.forget(channel.getName());
+	}
+
+	/**
+	 * Refreshes the preview of the given channel outside of the regular interval.
+	 */
+	public void refresh(final Channel channel) {
+		if (enabled) {
+			ExecutorUtil.getExecutorService(Pool.IMAGE).submit(() -> refreshPreview(channel));
+		}
+	}
+
+	private void clear(final Channel channel) {
+		channel.setPreview(null);
+		applied.remove(channel);
+		PreviewRetriever.forget(channel.getName());
+	}
+
+	/**
+	 * @return the smallest preview size covering the given width, or the largest size if none does
+	 */
+	private static int[] selectSize(final int width) {
+		for (final int[] size : PREVIEW_SIZES) {
+			if (size[0] >= width) {
+				return size;
+			}
+		}
+		return PREVIEW_SIZES[PREVIEW_SIZES.length - 1];
+	}
+
+	private void refreshPreview(final Channel channel) {
+		if (!isWanted(channel)) {
+			return;
+		}
+
+		final int width = displayWidth;
+		final int[] size = selectSize(width);
+		final int decodeWidth = Math.min(width, size[0]);
+
+		// a 304 keeps the current preview, so without a preview at this width the download must not be skipped
+		final AppliedPreview current = applied.get(channel);
+		final boolean conditional = current != null && current.decodeWidth == decodeWidth;
+
+		final PreviewRetriever.Preview response = PreviewRetriever.retrievePreview(channel.getName(), size[0], size[1], conditional);
+		if (response == null || !isWanted(channel)) {
+			return;
+		}
+
+		// the CDN does not always answer conditional requests with 304, identical content keeps the current image
+		final String contentHash = HashUtil.sha1(response.getData());
+		if (conditional && contentHash.equals(current.contentHash)) {
+			MetricsUtil.increment("preview.hash.hit");
+			return;
+		}
+		MetricsUtil.increment("preview.hash.miss");
+
+		final Image preview = ImageDecoder.decode(response.getData(), decodeWidth, 0, Priority.VISIBLE);
+		if (preview == null) {
+			LOGGER.warn("failed to decode preview of " + channel.getName());
+			return;
+		}
+
+		Platform.runLater(() -> {
+			if (enabled && Boolean.TRUE.equals(channel.isOnline()) && (viewport.contains(channel) || offscreen.containsKey(channel))) {
+				channel.setPreview(preview);
+				applied.put(channel, new AppliedPreview(contentHash, decodeWidth));
+				response.commit();
+			}
+		});
+	}
+
+	private boolean isWanted(final Channel channel) {
+		if (enabled && visible.contains(channel)) {
+			return true;
+		}
+		MetricsUtil.increment("preview.skipped");
+		return false;
+	}
+
+	@Override
+	protected Task<Void> createTask() {
+		// called on the JavaFX thread, so the channel properties can be read safely
+		final List<Channel> online = new ArrayList<>();
+		if (enabled) {
+			viewport.forEach(channel -> {
+				if (Boolean.TRUE.equals(channel.isOnline())) {
+					online.add(channel);
+				}
+			});
+		}
+
+		return new Task<Void>() {
+			@Override
+			protected Void call() throws Exception {
+				for (int i = 0; i < online.size(); i += PreviewRetriever.MAX_CONNECTIONS) {
+					final List<Callable<Void>> tasks = new ArrayList<>();
+					online.subList(i, Math.min(i + PreviewRetriever.MAX_CONNECTIONS, online.size())).forEach(channel -> tasks.add(() -> {
+						refreshPreview(channel);
+						return null;
+					}));
+
+					for (final Future<Void> future : ExecutorUtil.getExecutorService(Pool.IMAGE).invokeAll(tasks)) {
+						try {
+							future.get();
+						} catch (final ExecutionException | CancellationException e) {
+							LOGGER.warn("preview refresh failed", e);
+						}
+					}
+				}
+
+				LOGGER.trace("refreshed previews of " + online.size() + " channels");
+				return null;
+			}
+		};
+	}
+
+	private static class AppliedPreview {
+		private final String contentHash;
+		private final int decodeWidth;
+
+		private AppliedPreview(final String contentHash, final int decodeWidth) {
+			this.contentHash = contentHash;
+			this.decodeWidth = decodeWidth;
+		}
+	}
+}
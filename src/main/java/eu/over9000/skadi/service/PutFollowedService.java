@@ -27,6 +27,8 @@ import eu.over9000.cathode.data.Follow;
 import eu.over9000.cathode.data.parameters.PutFollowsOptions;
 import eu.over9000.skadi.ui.StatusBarWrapper;
 import eu.over9000.skadi.util.ExecutorUtil;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
+import eu.over9000.skadi.util.RateLimiter.Priority;
 import eu.over9000.skadi.util.TwitchUtil;
 import javafx.concurrent.Task;
 import org.slf4j.Logger;
@@ -47,6 +49,7 @@ public class PutFollowedService extends AbstractSkadiService<Void> {
 	private int successCnt = 0;
 
 	public PutFollowedService(final String user, final List<String> toPut, final StatusBarWrapper sb) {
+		super(Pool.SYNC);
 		this.user = user;
 		this.toPut = toPut;
 
@@ -71,9 +74,9 @@ public class PutFollowedService extends AbstractSkadiService<Void> {
 
 				final List<Callable<Result<Follow>>> tasks = new ArrayList<>(toPut.size());
 
-				toPut.forEach(channel -> tasks.add(() -> TwitchUtil.getTwitch().users.putFollows(user, channel, new PutFollowsOptions(true))));
+				toPut.forEach(channel -> tasks.add(() -> TwitchUtil.track(TwitchUtil.getTwitch(Priority.BULK).users.putFollows(user, channel, new PutFollowsOptions(true)))));
 
-				final List<Future<Result<Follow>>> futures = ExecutorUtil.getExecutorService().invokeAll(tasks);
+				final List<Future<Result<Follow>>> futures = ExecutorUtil.getExecutorService(Pool.SYNC_BATCH).invokeAll(tasks);
 
 				for (int i = 0; i < futures.size(); i++) {
 					try {
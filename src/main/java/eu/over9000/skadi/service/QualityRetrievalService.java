@@ -26,6 +26,7 @@ import eu.over9000.skadi.model.Channel;
 import eu.over9000.skadi.model.StateContainer;
 import eu.over9000.skadi.model.StreamQuality;
 import eu.over9000.skadi.remote.StreamQualityRetriever;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
 import javafx.concurrent.Task;
 import javafx.scene.control.MenuItem;
 
@@ -40,6 +41,7 @@ public class QualityRetrievalService extends AbstractSkadiService<List<MenuItem>
 	private final StateContainer state;
 
 	public QualityRetrievalService(final Consumer<StreamQuality> consumer, final Channel channel, final StateContainer state) {
+		super(Pool.PROCESS);
 		this.consumer = consumer;
 		this.channel = channel;
 		this.state = state;
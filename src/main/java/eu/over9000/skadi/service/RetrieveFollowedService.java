@@ -27,6 +27,8 @@ import eu.over9000.cathode.data.FollowList;
 import eu.over9000.cathode.data.parameters.Direction;
 import eu.over9000.cathode.data.parameters.GetFollowsSortBy;
 import eu.over9000.cathode.data.parameters.OffsetPagination;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
+import eu.over9000.skadi.util.RateLimiter.Priority;
 import eu.over9000.skadi.util.TwitchUtil;
 import javafx.concurrent.Task;
 import org.slf4j.Logger;
@@ -43,6 +45,7 @@ public class RetrieveFollowedService extends AbstractSkadiService<Set<String>> {
 
 	@SuppressWarnings("unchecked")
 	public RetrieveFollowedService(final String user) {
+		super(Pool.SYNC);
 		this.user = user;
 	}
 
@@ -63,7 +66,7 @@ public class RetrieveFollowedService extends AbstractSkadiService<Set<String>> {
 				Result<FollowList> responseFollows;
 
 				do {
-					responseFollows = TwitchUtil.getTwitch().users.getFollows(user, pagination, new Direction(), new GetFollowsSortBy());
+					responseFollows = TwitchUtil.track(TwitchUtil.getTwitch(Priority.BULK).users.getFollows(user, pagination, new Direction(), new GetFollowsSortBy()));
 
 					if (!responseFollows.isOk()) {
 						final String error = responseFollows.getErrorRaw().getMessage();
@@ -24,6 +24,7 @@ package eu.over9000.skadi.service;
 
 import eu.over9000.skadi.model.StateContainer;
 import eu.over9000.skadi.ui.StatusBarWrapper;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
 import javafx.concurrent.Task;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +46,7 @@ public class StreamlinkVersionCheckService extends AbstractSkadiService<String>
 	private final StateContainer state;
 
 	public StreamlinkVersionCheckService(final StatusBarWrapper sb, final StateContainer state) {
+		super(Pool.PROCESS);
 		this.state = state;
 		setOnSucceeded(event -> {
 			final String message = (String) event.getSource().getValue();
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.service.helper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls live channels and the selected channel at the short live interval. Channels that have been offline for longer
+ * than the backoff delay have their interval doubled for every further backoff delay they stay offline, up to the
+ * maximum interval.
+ */
+public class AdaptivePollingPolicy implements PollingPolicy {
+
+	private static final long DEFAULT_LIVE_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+	private static final long DEFAULT_OFFLINE_INTERVAL = TimeUnit.SECONDS.toMillis(60);
+	private static final long DEFAULT_MAX_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+	private static final long DEFAULT_BACKOFF_DELAY = TimeUnit.MINUTES.toMillis(15);
+
+	private final long liveInterval;
+	private final long offlineInterval;
+	private final long maxInterval;
+	private final long backoffDelay;
+
+	public AdaptivePollingPolicy() {
+		this(DEFAULT_LIVE_INTERVAL, DEFAULT_OFFLINE_INTERVAL, DEFAULT_MAX_INTERVAL, DEFAULT_BACKOFF_DELAY);
+	}
+
+	public AdaptivePollingPolicy(final long liveInterval, final long offlineInterval, final long maxInterval, final long backoffDelay) {
+		this.liveInterval = liveInterval;
+		this.offlineInterval = offlineInterval;
+		this.maxInterval = maxInterval;
+		this.backoffDelay = backoffDelay;
+	}
+
+	@Override
+	public long getInitialInterval() {
+		return liveInterval;
+	}
+
+	@Override
+	public long getNextInterval(final ChannelPollState state, final long now) {
+		if (state.isSelected() || !Boolean.FALSE.equals(state.getOnline())) {
+			return liveInterval;
+		}
+
+		final long offlineDuration = state.getOfflineDuration(now);
+		if (offlineDuration < backoffDelay) {
+			return offlineInterval;
+		}
+
+		// derived from the offline duration only, so a reset of the interval is not doubled back to the backoff level
+		long interval = offlineInterval;
+		for (long elapsed = backoffDelay; elapsed <= offlineDuration && interval < maxInterval; elapsed += backoffDelay) {
+			interval *= 2;
+		}
+		return Math.min(maxInterval, interval);
+	}
+}
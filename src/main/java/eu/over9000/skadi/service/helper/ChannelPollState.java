@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.service.helper;
+
+/**
+ * Polling bookkeeping of a single channel, owned by the update scheduler.
+ */
+public class ChannelPollState {
+	private Boolean online;
+	private long offlineSince;
+	private long interval;
+	private long nextUpdate;
+	private boolean selected;
+
+	public ChannelPollState(final long interval, final long nextUpdate) {
+		this.interval = interval;
+		this.nextUpdate = nextUpdate;
+	}
+
+	public void updateOnline(final Boolean online, final long now) {
+		if (Boolean.FALSE.equals(online) && !Boolean.FALSE.equals(this.online)) {
+			offlineSince = now;
+		}
+		this.online = online;
+	}
+
+	public Boolean getOnline() {
+		return online;
+	}
+
+	public long getOfflineDuration(final long now) {
+		return Boolean.FALSE.equals(online) ? now - offlineSince : 0;
+	}
+
+	public long getInterval() {
+		return interval;
+	}
+
+	public void setInterval(final long interval) {
+		this.interval = interval;
+	}
+
+	public long getNextUpdate() {
+		return nextUpdate;
+	}
+
+	public void setNextUpdate(final long nextUpdate) {
+		this.nextUpdate = nextUpdate;
+	}
+
+	/**
+	 * @return true if the channel is currently selected in the UI
+	 */
+	public boolean isSelected() {
+		return selected;
+	}
+
+	public void setSelected(final boolean selected) {
+		this.selected = selected;
+	}
+}
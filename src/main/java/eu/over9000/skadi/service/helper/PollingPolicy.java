@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.service.helper;
+
+/**
+ * Decides how often a channel is polled by the update scheduler.
+ */
+public interface PollingPolicy {
+
+	/**
+	 * @return the interval in milliseconds used for new channels and after a reset (selection, policy change)
+	 */
+	long getInitialInterval();
+
+	/**
+	 * The selected channel ({@link ChannelPollState#isSelected()}) is expected to be polled at the shortest interval of
+	 * the policy, whether it is online or not.
+	 *
+	 * @param state
+	 * 		the poll state of the channel, already updated with the result of the last poll
+	 * @param now
+	 * 		the time of the last poll
+	 * @return the interval in milliseconds until the channel is polled again
+	 */
+	long getNextInterval(ChannelPollState state, long now);
+}
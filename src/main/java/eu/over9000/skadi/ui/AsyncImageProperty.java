@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.ui;
+
+import eu.over9000.skadi.util.ImageRequest;
+import eu.over9000.skadi.util.ImageUtil;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.Image;
+
+import java.util.function.Function;
+
+/**
+ * Image property that loads its value in the background. Setting a source shows the placeholder (or a given preliminary
+ * image) immediately, the image is loaded on the image pool and swapped in on the JavaFX thread. Setting another source
+ * cancels the pending load.
+ * <p>
+ * All methods have to be called on the JavaFX thread.
+ */
+public class AsyncImageProperty extends ReadOnlyObjectWrapper<Image> {
+
+	private final Function<String, Image> loader;
+	private final Image placeholder;
+	private final ChangeListener<String> sourceListener = (observable, oldValue, newValue) -> load(newValue);
+
+	private ObservableValue<String> source;
+	private ImageRequest request;
+
+	/**
+	 * @param loader loads the image for a source, may block and may return null
+	 * @param placeholder shown while there is no source or the image of the source is loading
+	 */
+	public AsyncImageProperty(final Function<String, Image> loader, final Image placeholder) {
+		super(placeholder);
+		this.loader = loader;
+		this.placeholder = placeholder;
+	}
+
+	/**
+	 * Loads the image of the given source, a null source shows the placeholder.
+	 */
+	public void load(final String source) {
+		load(source, null);
+	}
+
+	/**
+	 * Loads the image of the given source and shows the preliminary image (e.g. a low resolution version) until it is
+	 * loaded, a null source shows the placeholder.
+	 */
+	public void load(final String source, final Image preliminary) {
+		cancelRequest();
+		set(preliminary != null && source != null ? preliminary : placeholder);
+
+		if (source != null) {
+			request = ImageUtil.load(() -> loader.apply(source), this::set);
+		}
+	}
+
+	/**
+	 * Loads the image of the current value of the given source and again whenever it changes.
+	 */
+	public void bindSource(final ObservableValue<String> source) {
+		unbindSource();
+		this.source = source;
+		source.addListener(sourceListener);
+		load(source.getValue());
+	}
+
+	public void unbindSource() {
+		if (source != null) {
+			source.removeListener(sourceListener);
+			source = null;
+		}
+	}
+
+	/**
+	 * Unbinds the source, cancels the pending load and shows the placeholder.
+	 */
+	public void reset() {
+		unbindSource();
+		load(null);
+	}
+
+	private void cancelRequest() {
+		if (request != null) {
+			request.cancel();
+			request = null;
+		}
+	}
+}
@@ -37,6 +37,8 @@ public class ChannelDetailPane extends BorderPane {
 
 	final ChannelDetailPaneContent content;
 
+	private DetailPaneUpdateService service;
+
 	public ChannelDetailPane(final MainWindow main) {
 
 		final Button btnHide = GlyphsDude.createIconButton(FontAwesomeIcon.ANGLE_DOUBLE_RIGHT);
@@ -46,7 +48,16 @@ public class ChannelDetailPane extends BorderPane {
 		content = new ChannelDetailPaneContent(widthProperty(), btnHide.widthProperty());
 
 		main.getDetailChannel().addListener((observable, oldValue, newValue) -> {
-			if (newValue != null) {
+			if (service != null) {
+				service.cancel();
+				service = null;
+			}
+
+			if (newValue == null) {
+				content.getLogoImage().reset();
+				content.getGameImage().reset();
+				content.getPreviewImage().reset();
+			} else {
 				LOGGER.trace("detail channel changed: " + newValue);
 				final ProgressIndicator pi = new ProgressIndicator();
 
@@ -56,7 +67,7 @@ public class ChannelDetailPane extends BorderPane {
 
 				setCenter(pi);
 
-				final DetailPaneUpdateService service = new DetailPaneUpdateService(newValue, content);
+				service = new DetailPaneUpdateService(newValue, content, main.getChannelStore().getHistoryStore());
 				service.setOnSucceeded(event -> setCenter(content));
 				service.setOnFailed(event -> LOGGER.error("Error building Detail pane", event.getSource().getException()));
 				service.start();
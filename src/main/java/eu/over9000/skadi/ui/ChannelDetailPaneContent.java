@@ -25,6 +25,7 @@ package eu.over9000.skadi.ui;
 import de.jensd.fx.glyphs.GlyphsDude;
 import de.jensd.fx.glyphs.fontawesome.FontAwesomeIcon;
 import eu.over9000.skadi.ui.label.CopyableLabel;
+import eu.over9000.skadi.util.ImageUtil;
 import eu.over9000.skadi.util.TimeUtil;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.property.ReadOnlyDoubleProperty;
@@ -46,12 +47,21 @@ import javafx.util.StringConverter;
 
 public class ChannelDetailPaneContent extends ScrollPane {
 
+	private static final int PREVIEW_WIDTH = 640;
+	private static final int PREVIEW_HEIGHT = 360;
+	private static final int LOGO_SIZE = 72;
+	private static final int GAME_BOX_WIDTH = 52;
+	private static final int GAME_BOX_HEIGHT = 72;
+
 	private final DoubleBinding widthBinding;
 
 	private final Label lbLogo;
 	private final CopyableLabel lbName;
 	private final CopyableLabel lbStatus;
 	private final ImageView ivPreview;
+	private final AsyncImageProperty logoImage;
+	private final AsyncImageProperty gameImage;
+	private final AsyncImageProperty previewImage;
 	private final LineChart<Number, Number> viewerChart;
 	private final CopyableLabel lbAvg;
 	private final CopyableLabel lbCurr;
@@ -59,6 +69,7 @@ public class ChannelDetailPaneContent extends ScrollPane {
 	private final CopyableLabel lbFollowers;
 	private final CopyableLabel lbViews;
 	private final CopyableLabel lbPartner;
+	private final CopyableLabel lbUpdateInterval;
 	private final FlowPane panelPane;
 	private final Button btOpenInBrowser;
 	private final FlowPane emotePane;
@@ -79,7 +90,14 @@ public class ChannelDetailPaneContent extends ScrollPane {
 		final BorderPane bp_img = new BorderPane();
 		final BorderPane bp_info = new BorderPane();
 
-		lbLogo = new Label();
+		logoImage = new AsyncImageProperty(ImageUtil::getImageInternal, ImageUtil.createPlaceholder(LOGO_SIZE, LOGO_SIZE));
+		final ImageView ivLogo = new ImageView();
+		ivLogo.imageProperty().bind(logoImage.getReadOnlyProperty());
+		ivLogo.setFitHeight(LOGO_SIZE);
+		ivLogo.setFitWidth(LOGO_SIZE);
+		ivLogo.setSmooth(true);
+		ivLogo.setCache(true);
+		lbLogo = new Label(null, ivLogo);
 
 		lbName = new CopyableLabel();
 		lbName.setFont(new Font(24));
@@ -87,9 +105,11 @@ public class ChannelDetailPaneContent extends ScrollPane {
 		lbStatus = new CopyableLabel();
 		lbStatus.setFont(new Font(16));
 
+		previewImage = new AsyncImageProperty(channel -> ImageUtil.getPreview(channel, PREVIEW_WIDTH, PREVIEW_HEIGHT), ImageUtil.createPlaceholder(PREVIEW_WIDTH, PREVIEW_HEIGHT));
 		ivPreview = new ImageView();
-		ivPreview.setFitWidth(640);
-		ivPreview.setFitHeight(360);
+		ivPreview.imageProperty().bind(previewImage.getReadOnlyProperty());
+		ivPreview.setFitWidth(PREVIEW_WIDTH);
+		ivPreview.setFitHeight(PREVIEW_HEIGHT);
 
 		final NumberAxis xAxis = new NumberAxis();
 		xAxis.setForceZeroInRange(false);
@@ -118,19 +138,23 @@ public class ChannelDetailPaneContent extends ScrollPane {
 		lbFollowers = new CopyableLabel();
 		lbViews = new CopyableLabel();
 		lbPartner = new CopyableLabel();
+		lbUpdateInterval = new CopyableLabel();
 
 
 		btOpenInBrowser = GlyphsDude.createIconButton(FontAwesomeIcon.EXTERNAL_LINK, "Open in Browser");
 
 		emotePane = new FlowPane(5, 5);
 
-		final HBox boxInfo1 = new HBox(10, new VBox(10, lbCurr, lbAvg, lbFollowers, lbViews, lbPartner, btOpenInBrowser), new Separator(Orientation.VERTICAL));
+		final HBox boxInfo1 = new HBox(10, new VBox(10, lbCurr, lbAvg, lbFollowers, lbViews, lbPartner, lbUpdateInterval, btOpenInBrowser), new Separator(Orientation.VERTICAL));
 		final VBox boxInfo2 = new VBox(10, new Label("Subscriber Emotes:"), emotePane);
 
 		bp_info.setLeft(boxInfo1);
 		bp_info.setCenter(boxInfo2);
 
-		lbGame = new Label();
+		gameImage = new AsyncImageProperty(ImageUtil::getGameBox, ImageUtil.createPlaceholder(GAME_BOX_WIDTH, GAME_BOX_HEIGHT));
+		final ImageView ivGame = new ImageView();
+		ivGame.imageProperty().bind(gameImage.getReadOnlyProperty());
+		lbGame = new Label(null, ivGame);
 
 		upperVBox.getChildren().add(lbName);
 		upperVBox.getChildren().add(lbStatus);
@@ -159,6 +183,21 @@ public class ChannelDetailPaneContent extends ScrollPane {
 		setContent(detailPane);
 	}
 
+	public AsyncImageProperty getLogoImage() {
+		return logoImage;
+	}
+
+	public AsyncImageProperty getGameImage() {
+		return gameImage;
+	}
+
+	/**
+	 * Loads the preview of the channel name it is given.
+	 */
+	public AsyncImageProperty getPreviewImage() {
+		return previewImage;
+	}
+
 	public CopyableLabel getLbFollowers() {
 		return lbFollowers;
 	}
@@ -171,6 +210,10 @@ public class ChannelDetailPaneContent extends ScrollPane {
 		return lbPartner;
 	}
 
+	public CopyableLabel getLbUpdateInterval() {
+		return lbUpdateInterval;
+	}
+
 	public DoubleBinding getWidthBinding() {
 		return widthBinding;
 	}
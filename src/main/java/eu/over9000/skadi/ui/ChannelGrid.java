@@ -23,15 +23,78 @@
 package eu.over9000.skadi.ui;
 
 import eu.over9000.skadi.model.Channel;
+import eu.over9000.skadi.ui.cells.ChannelGridCell;
 import impl.org.controlsfx.skin.GridViewSkin;
+import javafx.application.Platform;
 import org.controlsfx.control.GridView;
 
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Consumer;
 
 public class ChannelGrid extends GridView<Channel> {
 
+	/**
+	 * Number of items before the first and after the last displayed item that are considered part of the viewport.
+	 */
+	private static final int PREFETCH_MARGIN = 12;
+
+	private final Map<ChannelGridCell, Channel> displayed = new WeakHashMap<>();
+	private boolean viewportUpdatePending;
+	private Consumer<Set<Channel>> viewportListener;
+
 	private Channel selected;
 
+	/**
+	 * Sets the listener that is notified with the channels in the viewport (displayed items plus a prefetch margin)
+	 * whenever the displayed items change.
+	 */
+	public void setViewportListener(final Consumer<Set<Channel>> viewportListener) {
+		this.viewportListener = viewportListener;
+	}
+
+	/**
+	 * Called by the cells when their item changes.
+	 */
+	public void onCellItemChanged(final ChannelGridCell cell, final Channel item) {
+		if (item == null) {
+			displayed.remove(cell);
+		} else {
+			displayed.put(cell, item);
+		}
+
+		if (!viewportUpdatePending) {
+			viewportUpdatePending = true;
+			Platform.runLater(this::updateViewport);
+		}
+	}
+
+	private void updateViewport() {
+		viewportUpdatePending = false;
+		if (viewportListener == null) {
+			return;
+		}
+
+		final List<Channel> items = getItems();
+		final Set<Channel> viewport = new HashSet<>(displayed.values());
+
+		// the cells know the index of their item, so the items do not have to be searched
+		int first = Integer.MAX_VALUE;
+		int last = -1;
+		for (final Map.Entry<ChannelGridCell, Channel> entry : displayed.entrySet()) {
+			final int index = entry.getKey().getIndex();
+			if (index >= 0 && index < items.size() && items.get(index) == entry.getValue()) {
+				first = Math.min(first, index);
+				last = Math.max(last, index);
+			}
+		}
+
+		if (last >= 0) {
+			viewport.addAll(items.subList(Math.max(0, first - PREFETCH_MARGIN), Math.min(items.size(), last + PREFETCH_MARGIN + 1)));
+		}
+
+		viewportListener.accept(viewport);
+	}
+
 	public void select(final Channel channel) {
 		selected = channel;
 	}
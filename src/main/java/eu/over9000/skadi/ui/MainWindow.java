@@ -33,6 +33,7 @@ import eu.over9000.skadi.model.Channel;
 import eu.over9000.skadi.model.ChannelStore;
 import eu.over9000.skadi.model.StateContainer;
 import eu.over9000.skadi.model.StreamQuality;
+import eu.over9000.skadi.remote.CircuitBreaker;
 import eu.over9000.skadi.service.ForcedChannelUpdateService;
 import eu.over9000.skadi.service.ImportFollowedService;
 import eu.over9000.skadi.service.StreamlinkVersionCheckService;
@@ -78,6 +79,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 public class MainWindow extends Application implements LockWakeupReceiver {
@@ -273,6 +275,7 @@ public class MainWindow extends Application implements LockWakeupReceiver {
 		streamlinkVersionCheckService.start();
 
 		SingleInstanceLock.addReceiver(this);
+		CircuitBreaker.addListener(statusBarWrapper::showCircuitState);
 
 	}
 
@@ -303,6 +306,9 @@ public class MainWindow extends Application implements LockWakeupReceiver {
 		grid.setCellFactory(gridView -> new ChannelGridCell(grid, this));
 		grid.cellHeightProperty().bind(scalingGridCellHeight);
 		grid.cellWidthProperty().bind(scalingGridCellWidth);
+		grid.setViewportListener(channelStore.getPreviewRefresher()::setViewport);
+		channelStore.getPreviewRefresher().setDisplayWidth(scalingGridCellWidth.get());
+		scalingGridCellWidth.addListener((observable, oldValue, newValue) -> channelStore.getPreviewRefresher().setDisplayWidth(newValue.doubleValue()));
 		grid.setHorizontalCellSpacing(5);
 		grid.setVerticalCellSpacing(5);
 
@@ -324,6 +330,7 @@ public class MainWindow extends Application implements LockWakeupReceiver {
 			applicationState.setShowGrid(false);
 			persistenceHandler.saveState(applicationState);
 			toggleScaleSlider(false);
+			channelStore.getPreviewRefresher().setEnabled(false);
 		});
 
 		tbGrid.setOnAction(event -> {
@@ -331,6 +338,7 @@ public class MainWindow extends Application implements LockWakeupReceiver {
 			applicationState.setShowGrid(true);
 			persistenceHandler.saveState(applicationState);
 			toggleScaleSlider(true);
+			channelStore.getPreviewRefresher().setEnabled(true);
 		});
 
 		final SegmentedButton segmentedButton = new SegmentedButton(tbTable, tbGrid);
@@ -344,10 +352,12 @@ public class MainWindow extends Application implements LockWakeupReceiver {
 			tbGrid.setSelected(true);
 			grid.toFront();
 			toggleScaleSlider(true);
+			channelStore.getPreviewRefresher().setEnabled(true);
 		} else {
 			tbTable.setSelected(true);
 			table.toFront();
 			toggleScaleSlider(false);
+			channelStore.getPreviewRefresher().setEnabled(false);
 		}
 	}
 
@@ -363,8 +373,11 @@ public class MainWindow extends Application implements LockWakeupReceiver {
 	public void stop() throws Exception {
 		super.stop();
 		tray.onShutdown();
+		persistenceHandler.shutdown();
+		channelStore.shutdown();
 		ExecutorUtil.performShutdown();
 		NotificationUtil.onShutdown();
+		MetricsUtil.logSummary();
 	}
 
 	private void setupToolbarLeft(final Stage stage) {
@@ -468,6 +481,7 @@ public class MainWindow extends Application implements LockWakeupReceiver {
 				persistenceHandler.saveState(result.get());
 				checkThemeChange();
 				checkAuthChange();
+				channelStore.getPreviewRefresher().setRefreshInterval(TimeUnit.MINUTES.toSeconds(applicationState.getPreviewRefreshInterval()));
 			}
 		});
 
@@ -628,6 +642,8 @@ public class MainWindow extends Application implements LockWakeupReceiver {
 		chatAndStreamButton.setDisable(channel == null);
 		chatAndStreamButton.updateCandidate(channel);
 		lastSelected = channel;
+
+		channelStore.getUpdateScheduler().setSelected(channel);
 	}
 
 	public void openDetailPage(final Channel channel) {
@@ -670,6 +686,10 @@ public class MainWindow extends Application implements LockWakeupReceiver {
 		timeline.play();
 	}
 
+	public ChannelStore getChannelStore() {
+		return channelStore;
+	}
+
 	public ObjectProperty<Channel> getDetailChannel() {
 		return detailChannel;
 	}
@@ -22,6 +22,10 @@
 
 package eu.over9000.skadi.ui;
 
+import eu.over9000.skadi.remote.CircuitBreaker.Endpoint;
+import eu.over9000.skadi.remote.CircuitBreaker.State;
+import eu.over9000.skadi.util.TimeUtil;
+import javafx.application.Platform;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.StringProperty;
 import javafx.concurrent.Service;
@@ -59,6 +63,18 @@ public class StatusBarWrapper {
 		return statusBar.progressProperty();
 	}
 
+	/**
+	 * Shows state changes of an API circuit breaker, may be called from any thread.
+	 */
+	public void showCircuitState(final Endpoint endpoint, final State state, final long retryIn) {
+		final String name = endpoint.name().toLowerCase();
+		if (state == State.OPEN) {
+			Platform.runLater(() -> updateStatusText("Twitch " + name + " API unavailable, retrying in " + TimeUtil.getDurationBreakdown(retryIn, false)));
+		} else if (state == State.CLOSED) {
+			Platform.runLater(() -> updateStatusText("Twitch " + name + " API available again"));
+		}
+	}
+
 	public void bindToService(final Service service) {
 		statusBar.textProperty().bind(service.messageProperty());
 		statusBar.progressProperty().bind(service.progressProperty());
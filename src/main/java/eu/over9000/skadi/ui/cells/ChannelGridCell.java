@@ -113,6 +113,7 @@ public class ChannelGridCell extends GridCell<Channel> {
 			lastItem.previewProperty().removeListener(weakPreviewListener);
 		}
 		lastItem = item;
+		grid.onCellItemChanged(this, empty ? null : item);
 
 		if (empty || item == null) {
 			imageView.setImage(null);
@@ -121,7 +122,9 @@ public class ChannelGridCell extends GridCell<Channel> {
 		} else {
 			updateSelected(grid.isSelected(item));
 
-			if (item.isOnline() != null) {
+			if (item.isStale()) {
+				name.setStyle("-fx-font-weight: bold;-fx-text-fill: gray");
+			} else if (item.isOnline() != null) {
 				if (item.isOnline()) {
 					name.setStyle("-fx-font-weight: bold;-fx-text-fill: green");
 				} else {
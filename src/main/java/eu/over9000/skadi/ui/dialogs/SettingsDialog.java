@@ -55,6 +55,8 @@ public class SettingsDialog extends Dialog<StateContainer> {
 	private CheckBox cbShowNotifications;
 	private CheckBox cbMinimizeToTray;
 	private CheckBox cbDarkTheme;
+	private Label lbPreviewRefresh;
+	private Spinner<Integer> spPreviewRefresh;
 	private Label lbStreamlink;
 	private Label lbChrome;
 	private Label lbAuthUser;
@@ -89,6 +91,7 @@ public class SettingsDialog extends Dialog<StateContainer> {
 				state.setDisplayNotifications(cbShowNotifications.isSelected());
 				state.setMinimizeToTray(cbMinimizeToTray.isSelected());
 				state.setUseDarkTheme(cbDarkTheme.isSelected());
+				state.setPreviewRefreshInterval(spPreviewRefresh.getValue());
 				return state;
 			}
 			return null;
@@ -119,6 +122,22 @@ public class SettingsDialog extends Dialog<StateContainer> {
 		return cbDarkTheme;
 	}
 
+	public Label getLbPreviewRefresh() {
+		if (lbPreviewRefresh == null) {
+			lbPreviewRefresh = new Label("Preview refresh interval (minutes)");
+		}
+		return lbPreviewRefresh;
+	}
+
+	public Spinner<Integer> getSpPreviewRefresh() {
+		if (spPreviewRefresh == null) {
+			spPreviewRefresh = new Spinner<>(1, 60, state.getPreviewRefreshInterval());
+			spPreviewRefresh.setEditable(true);
+			spPreviewRefresh.setPrefWidth(80);
+		}
+		return spPreviewRefresh;
+	}
+
 	public Label getLbStreamlink() {
 		if (lbStreamlink == null) {
 			lbStreamlink = new Label("streamlink executable");
@@ -277,16 +296,18 @@ public class SettingsDialog extends Dialog<StateContainer> {
 			contentPane.add(getCbShowNotifications(), 0, 3);
 			contentPane.add(getCbMinimizeToTray(), 0, 4);
 			contentPane.add(getCbDarkTheme(), 0, 5);
+			contentPane.add(getLbPreviewRefresh(), 0, 6);
+			contentPane.add(getSpPreviewRefresh(), 1, 6);
 
-			contentPane.add(new Separator(), 0, 6, 3, 1);
+			contentPane.add(new Separator(), 0, 7, 3, 1);
 
-			contentPane.add(getLbAuthUser(), 0, 7);
-			contentPane.add(getValueAuthUser(), 1, 7);
-			contentPane.add(getBtChangeAuth(), 2, 7);
+			contentPane.add(getLbAuthUser(), 0, 8);
+			contentPane.add(getValueAuthUser(), 1, 8);
+			contentPane.add(getBtChangeAuth(), 2, 8);
 
-			contentPane.add(new Separator(), 0, 8, 3, 1);
+			contentPane.add(new Separator(), 0, 9, 3, 1);
 
-			contentPane.add(getBoxSkadiLog(), 0, 9);
+			contentPane.add(getBoxSkadiLog(), 0, 10);
 
 
 		}
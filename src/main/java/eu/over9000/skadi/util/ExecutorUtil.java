@@ -25,48 +25,196 @@ package eu.over9000.skadi.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Provides one bounded thread pool per workload class, so a burst in one workload (e.g. preview downloads) can not
+ * starve the others (e.g. metadata polls).
+ */
 public class ExecutorUtil {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorUtil.class);
 
 	private static final long THREAD_TIME_OUT = 2;
-	private static final int THREAD_POOL_SIZE = 64;
 
 	private static final ThreadGroup THREAD_GROUP = new ThreadGroup("Skadi-pool");
 
-	private static final Thread.UncaughtExceptionHandler UNCAUGHT_HANDLER = (thread, throwable) -> LOGGER.warn("Uncaught throwable in " + THREAD_GROUP.getName(), throwable);
+	private static final Thread.UncaughtExceptionHandler UNCAUGHT_HANDLER = (thread, throwable) -> LOGGER.warn("Uncaught throwable in " + thread.getName(), throwable);
+
+	/**
+	 * What happens to a task that is submitted to a pool whose queue is full.
+	 */
+	public enum Rejection {
+		/**
+		 * The submitting thread runs the task itself. Only for pools that are fed by the threads of another pool, never
+		 * for pools that JavaFX services are started on, since services submit their tasks from the JavaFX thread.
+		 */
+		CALLER_RUNS,
+		/**
+		 * The oldest queued task is cancelled to make room, for work that gets stale quickly.
+		 */
+		DISCARD_OLDEST,
+		/**
+		 * The submitted task is cancelled.
+		 */
+		CANCEL
+	}
+
+	public enum Pool {
+		/**
+		 * Tasks of the channel metadata poll, forced refresh and preview refresh services.
+		 */
+		POLL(4, 16, Rejection.CANCEL),
+		/**
+		 * Batch requests fanned out by the tasks of the {@link #POLL} pool.
+		 */
+		POLL_BATCH(8, 128, Rejection.CALLER_RUNS),
+		/**
+		 * Image downloads (previews, logos, emotes, panel images).
+		 */
+		IMAGE(16, 256, Rejection.DISCARD_OLDEST),
+		/**
+		 * Assembly of the panel and emote lists of the detail pane.
+		 */
+		PANEL(4, 32, Rejection.DISCARD_OLDEST),
+		/**
+		 * External processes, e.g. quality probing via streamlink.
+		 */
+		PROCESS(4, 16, Rejection.CANCEL),
+		/**
+		 * File downloads.
+		 */
+		DOWNLOAD(2, 8, Rejection.CANCEL),
+		/**
+		 * Tasks of the follow import, sync and authentication services.
+		 */
+		SYNC(4, 16, Rejection.CANCEL),
+		/**
+		 * Follow requests fanned out by the tasks of the {@link #SYNC} pool.
+		 */
+		SYNC_BATCH(8, 256, Rejection.CALLER_RUNS),
+		/**
+		 * Everything else.
+		 */
+		DEFAULT(16, 256, Rejection.CANCEL);
+
+		private final int threads;
+		private final int queueCapacity;
+		private final Rejection rejection;
+
+		Pool(final int threads, final int queueCapacity, final Rejection rejection) {
+			this.threads = threads;
+			this.queueCapacity = queueCapacity;
+			this.rejection = rejection;
+		}
+
+		private String metricName(final String metric) {
+			return "executor." + name().toLowerCase() + "." + metric;
+		}
+	}
+
+	private static final Map<Pool, ThreadPoolExecutor> EXECUTORS = new EnumMap<>(Pool.class);
+
+	static {
+		for (final Pool pool : Pool.values()) {
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(pool.threads, pool.threads, THREAD_TIME_OUT, TimeUnit.MINUTES, new LinkedBlockingQueue<>(pool.queueCapacity), createThreadFactory(pool.name().toLowerCase()), createRejectionHandler(pool));
+			executor.allowCoreThreadTimeOut(true);
+			EXECUTORS.put(pool, executor);
+		}
+	}
 
-	private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
-		private final AtomicInteger threadNumber = new AtomicInteger(1);
+	/**
+	 * Creates a factory for daemon threads of the Skadi thread group, for pools that are not managed here.
+	 */
+	public static ThreadFactory createThreadFactory(final String name) {
+		final AtomicInteger threadNumber = new AtomicInteger(1);
+		final String prefix = "Skadi-" + name + "-thread-";
 
-		@Override
-		public Thread newThread(final Runnable runnable) {
-			final Thread thread = new Thread(THREAD_GROUP, runnable, THREAD_GROUP.getName() + "-thread-" + threadNumber.getAndIncrement(), 0);
+		return runnable -> {
+			final Thread thread = new Thread(THREAD_GROUP, runnable, prefix + threadNumber.getAndIncrement(), 0);
 			thread.setUncaughtExceptionHandler(UNCAUGHT_HANDLER);
 			thread.setPriority(Thread.MIN_PRIORITY);
 			thread.setDaemon(true);
 			return thread;
+		};
+	}
+
+	private static RejectedExecutionHandler createRejectionHandler(final Pool pool) {
+		return (runnable, executor) -> {
+			MetricsUtil.increment(pool.metricName("rejected"));
+
+			if (executor.isShutdown()) {
+				cancel(runnable);
+				return;
+			}
+
+			switch (pool.rejection) {
+				case CALLER_RUNS:
+					runnable.run();
+					break;
+				case DISCARD_OLDEST:
+					cancel(executor.getQueue().poll());
+					if (!executor.getQueue().offer(runnable)) {
+						cancel(runnable);
+					}
+					break;
+				default:
+					cancel(runnable);
+			}
+		};
+	}
+
+	/**
+	 * Cancels a task that will never run, so waiting callers (and JavaFX services) are released instead of hanging.
+	 */
+	private static void cancel(final Runnable runnable) {
+		if (runnable instanceof Future) {
+			((Future<?>) runnable).cancel(false);
+		} else if (runnable != null) {
+			LOGGER.warn("dropped task " + runnable);
 		}
-	};
+	}
 
-	private static final ThreadPoolExecutor EXECUTOR_SERVICE = new ThreadPoolExecutor(THREAD_POOL_SIZE, THREAD_POOL_SIZE, THREAD_TIME_OUT, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), THREAD_FACTORY);
+	public static void logPoolMetrics() {
+		EXECUTORS.forEach((pool, executor) -> LOGGER.info(pool + " pool: queued=" + executor.getQueue().size() + " active=" + executor.getActiveCount() + " completed=" + executor.getCompletedTaskCount() + " rejected=" + MetricsUtil.get(pool.metricName("rejected"))));
+	}
 
-	static {
-		EXECUTOR_SERVICE.allowCoreThreadTimeOut(true);
+	public static int getQueueDepth(final Pool pool) {
+		return EXECUTORS.get(pool).getQueue().size();
+	}
+
+	public static int getActiveCount(final Pool pool) {
+		return EXECUTORS.get(pool).getActiveCount();
+	}
+
+	public static long getCompletedCount(final Pool pool) {
+		return EXECUTORS.get(pool).getCompletedTaskCount();
+	}
+
+	public static long getRejectedCount(final Pool pool) {
+		return MetricsUtil.get(pool.metricName("rejected"));
 	}
 
 	public static void performShutdown() {
+		logPoolMetrics();
+		EXECUTORS.values().forEach(ThreadPoolExecutor::shutdown);
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
 		try {
-			EXECUTOR_SERVICE.shutdown();
-			EXECUTOR_SERVICE.awaitTermination(5, TimeUnit.SECONDS);
+			for (final ThreadPoolExecutor executor : EXECUTORS.values()) {
+				executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			}
 		} catch (final InterruptedException e) {
 			LOGGER.error("exception during shutdown", e);
 		}
 	}
 
+	public static ExecutorService getExecutorService(final Pool pool) {
+		return EXECUTORS.get(pool);
+	}
+
 	public static ExecutorService getExecutorService() {
-		return EXECUTOR_SERVICE;
+		return getExecutorService(Pool.DEFAULT);
 	}
-}
\ No newline at end of file
+}
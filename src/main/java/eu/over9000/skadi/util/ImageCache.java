@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.util;
+
+import eu.over9000.cathode.Result;
+import eu.over9000.skadi.io.DiskCache;
+import eu.over9000.skadi.io.PersistenceHandler;
+import eu.over9000.skadi.util.ImageDecoder.Priority;
+import javafx.scene.image.Image;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Two tier cache of decoded images. The memory tier is a LRU bounded by the decoded size of the images, the disk tier
+ * keeps the encoded bytes under {@code ~/.skadi/cache} across restarts.
+ */
+public class ImageCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ImageCache.class);
+
+	private static final long MEMORY_CAPACITY = 64 * 1024 * 1024;
+	private static final long DISK_CAPACITY = 256 * 1024 * 1024;
+	private static final long DISK_EXPIRY = TimeUnit.DAYS.toMillis(7);
+	private static final String CACHE_DIRECTORY = "cache";
+
+	private final Map<String, Image> memory = new LinkedHashMap<>(64, 0.75f, true);
+	private final long memoryCapacity;
+	private final DiskCache disk;
+	private long memorySize;
+
+	public ImageCache() {
+		this(MEMORY_CAPACITY, new DiskCache(Paths.get(PersistenceHandler.PERSISTENCE_DIRECTORY, CACHE_DIRECTORY), DISK_CAPACITY, DISK_EXPIRY));
+	}
+
+	public ImageCache(final long memoryCapacity, final DiskCache disk) {
+		this.memoryCapacity = memoryCapacity;
+		this.disk = disk;
+	}
+
+	/**
+	 * Returns the image for the given key from memory or disk, or decodes and caches the bytes supplied by the loader.
+	 * Decoding is done by the {@link ImageDecoder} with the given priority.
+	 *
+	 * @return the image, or null if it could not be loaded
+	 */
+	public Image get(final String key, final Supplier<Result<byte[]>> loader, final Priority priority) {
+		return get(key, loader, 0, 0, priority);
+	}
+
+	/**
+	 * Like {@link #get(String, Supplier, Priority)}, but decodes the image scaled to fit the given size (0 for the
+	 * original size). Scaled images are kept in memory under their own key, the disk tier holds the encoded bytes once.
+	 */
+	public Image get(final String key, final Supplier<Result<byte[]>> loader, final double width, final double height, final Priority priority) {
+		final String memoryKey = width > 0 || height > 0 ? key + "@" + width + "x" + height : key;
+		final Image cached = getFromMemory(memoryKey);
+		if (cached != null) {
+			MetricsUtil.increment("imagecache.memory.hit");
+			return cached;
+		}
+
+		final byte[] stored = disk.get(key);
+		if (stored != null) {
+			final Image image = ImageDecoder.decode(stored, width, height, priority);
+			if (image != null) {
+				MetricsUtil.increment("imagecache.disk.hit");
+				putInMemory(memoryKey, image);
+				return image;
+			}
+		}
+
+		MetricsUtil.increment("imagecache.miss");
+		final Result<byte[]> response = loader.get();
+		if (!response.isOk()) {
+			LOGGER.error("failed to load image " + key, response.getErrorRaw());
+			return null;
+		}
+
+		final Image image = ImageDecoder.decode(response.getResultRaw(), width, height, priority);
+		if (image == null) {
+			LOGGER.error("failed to decode image " + key);
+			return null;
+		}
+
+		disk.put(key, response.getResultRaw());
+		putInMemory(memoryKey, image);
+		return image;
+	}
+
+	/**
+	 * @return the image for the given key if it is in memory, without loading it
+	 */
+	public Image getIfPresent(final String key) {
+		final Image cached = getFromMemory(key);
+		if (cached != null) {
+			MetricsUtil.increment("imagecache.memory.hit");
+		}
+		return cached;
+	}
+
+	public synchronized long getMemorySize() {
+		return memorySize;
+	}
+
+	private synchronized Image getFromMemory(final String key) {
+		return memory.get(key);
+	}
+
+	private synchronized void putInMemory(final String key, final Image image) {
+		final Image previous = memory.put(key, image);
+		if (previous != null) {
+			memorySize -= weight(previous);
+		}
+		memorySize += weight(image);
+
+		final Iterator<Image> iterator = memory.values().iterator();
+		while (memorySize > memoryCapacity && iterator.hasNext()) {
+			final Image eldest = iterator.next();
+			if (eldest == image) {
+				break;
+			}
+			memorySize -= weight(eldest);
+			iterator.remove();
+			MetricsUtil.increment("imagecache.memory.evicted");
+		}
+	}
+
+	/**
+	 * @return the decoded size of the image in bytes (32 bit per pixel)
+	 */
+	private static long weight(final Image image) {
+		return (long) image.getWidth() * (long) image.getHeight() * 4;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.util;
+
+import javafx.scene.image.Image;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes images on a pool bounded to the number of cores, separate from the (I/O bound) download threads. Queued
+ * decodes are ordered by priority, so visible grid cells are decoded before the detail pane and background work.
+ */
+public class ImageDecoder {
+
+	public enum Priority {
+		VISIBLE, DETAIL, BACKGROUND
+	}
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ImageDecoder.class);
+
+	private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+
+	private static final ThreadPoolExecutor DECODER = new ThreadPoolExecutor(THREADS, THREADS, 2, TimeUnit.MINUTES, new PriorityBlockingQueue<>(), ExecutorUtil.createThreadFactory("decode"));
+
+	static {
+		DECODER.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Decodes the given data at its original size, blocks until it is decoded.
+	 *
+	 * @return the image, or null if the data could not be decoded
+	 */
+	public static Image decode(final byte[] data, final Priority priority) {
+		return decode(data, 0, 0, priority);
+	}
+
+	/**
+	 * Decodes the given data scaled to fit the requested size (preserving the ratio, 0 for the original size), blocks
+	 * until it is decoded.
+	 *
+	 * @return the image, or null if the data could not be decoded
+	 */
+	public static Image decode(final byte[] data, final double width, final double height, final Priority priority) {
+		final DecodeTask task = new DecodeTask(data, width, height, priority);
+		DECODER.execute(task);
+		try {
+			return task.get();
+		} catch (final InterruptedException e) {
+			task.cancel(false);
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (final ExecutionException | CancellationException e) {
+			LOGGER.warn("failed to decode image", e);
+			return null;
+		}
+	}
+
+	public static int getQueueDepth() {
+		return DECODER.getQueue().size();
+	}
+
+	/**
+	 * @return the average time a decode took in milliseconds, excluding the time it was queued
+	 */
+	public static double getAverageDecodeTime() {
+		final long count = MetricsUtil.get("image.decode.count");
+		return count == 0 ? 0 : MetricsUtil.get("image.decode.nanos") / (double) count / 1_000_000;
+	}
+
+	private static class DecodeTask extends FutureTask<Image> implements Comparable<DecodeTask> {
+		private final Priority priority;
+		private final long sequence = SEQUENCE.getAndIncrement();
+
+		private DecodeTask(final byte[] data, final double width, final double height, final Priority priority) {
+			super(new DecodeCallable(data, width, height, priority));
+			this.priority = priority;
+		}
+
+		@Override
+		public int compareTo(final DecodeTask other) {
+			final int result = priority.compareTo(other.priority);
+			return result != 0 ? result : Long.compare(sequence, other.sequence);
+		}
+	}
+
+	private static class DecodeCallable implements Callable<Image> {
+		private final byte[] data;
+		private final double width;
+		private final double height;
+		private final Priority priority;
+		private final long queued = System.nanoTime();
+
+		private DecodeCallable(final byte[] data, final double width, final double height, final Priority priority) {
+			this.data = data;
+			this.width = width;
+			this.height = height;
+			this.priority = priority;
+		}
+
+		@Override
+		public Image call() {
+			final long start = System.nanoTime();
+			final Image image = new Image(new ByteArrayInputStream(data), width, height, true, true);
+			final long end = System.nanoTime();
+
+			MetricsUtil.increment("image.decode.count");
+			MetricsUtil.add("image.decode.nanos", end - start);
+			MetricsUtil.add("image.decode.wait_nanos." + priority.name().toLowerCase(), start - queued);
+
+			return image.isError() ? null : image;
+		}
+	}
+}
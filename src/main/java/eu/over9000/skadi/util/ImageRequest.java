@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.util;
+
+import java.util.concurrent.Future;
+
+/**
+ * Handle of an image load started by {@link ImageUtil#load}. Cancelling it drops the load if it did not start yet and
+ * discards its result otherwise, so the consumer is never called with the image afterwards.
+ */
+public class ImageRequest {
+
+	private volatile boolean cancelled;
+	private volatile boolean done;
+	private volatile Future<?> future;
+
+	void setFuture(final Future<?> future) {
+		this.future = future;
+		if (cancelled) {
+			future.cancel(false);
+		}
+	}
+
+	void setDone() {
+		done = true;
+	}
+
+	public void cancel() {
+		if (cancelled || done) {
+			return;
+		}
+		cancelled = true;
+		MetricsUtil.increment("image.request.cancelled");
+
+		final Future<?> current = future;
+		if (current != null) {
+			// a running download may be shared with other requests, so it is not interrupted
+			current.cancel(false);
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+}
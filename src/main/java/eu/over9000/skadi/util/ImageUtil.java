@@ -22,85 +22,150 @@
 
 package eu.over9000.skadi.util;
 
-import eu.over9000.cathode.Result;
 import eu.over9000.cathode.data.parameters.ImageSize;
-import eu.over9000.skadi.model.Channel;
+import eu.over9000.skadi.remote.PreviewRetriever;
+import eu.over9000.skadi.util.ExecutorUtil.Pool;
+import eu.over9000.skadi.util.ImageDecoder.Priority;
+import javafx.application.Platform;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.Callable;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class ImageUtil {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ImageUtil.class);
 
-	private static final Function<InputStream, Image> CONVERTER = Image::new;
+	private static final Function<InputStream, byte[]> BYTES_CONVERTER = ImageUtil::readBytes;
+
+	private static final ImageCache IMAGE_CACHE = new ImageCache();
+
+	private static final SingleFlight<String, Image> IMAGE_REQUESTS = new SingleFlight<>("image");
+	private static final SingleFlight<String, Image> GAME_BOX_REQUESTS = new SingleFlight<>("gamebox");
 
 	public static Image getImageInternal(final String url) {
+		return getImageInternal(url, Priority.DETAIL);
+	}
 
-		final Result<Image> imageResponse = TwitchUtil.getTwitch().imageUtil.getOther(url, CONVERTER);
+	public static Image getImageInternal(final String url, final Priority priority) {
+		return getImageInternal(url, 0, 0, priority);
+	}
 
-		if (!imageResponse.isOk()) {
-			LOGGER.error("failed to load image" + url, imageResponse.getErrorRaw());
+	/**
+	 * Loads the image of the given url scaled to fit the given size (0 for the original size), e.g. for small views that
+	 * should not keep the full size image in memory.
+	 */
+	public static Image getImageInternal(final String url, final int width, final int height, final Priority priority) {
+		if (url == null) {
 			return null;
 		}
 
-		return imageResponse.getResultRaw();
+		return IMAGE_REQUESTS.execute(url + "@" + width + "x" + height, () -> IMAGE_CACHE.get(url, () -> TwitchUtil.getTwitch().imageUtil.getOther(url, BYTES_CONVERTER), width, height, priority));
 	}
 
-	public static ImageView getGameBoxFromTwitch(final String game) {
+	/**
+	 * Runs the given loader on the image pool and passes its (non null) result to the consumer on the JavaFX thread,
+	 * unless the returned request was cancelled before.
+	 */
+	public static ImageRequest load(final Supplier<Image> loader, final Consumer<Image> consumer) {
+		final ImageRequest request = new ImageRequest();
+		request.setFuture(ExecutorUtil.getExecutorService(Pool.IMAGE).submit(() -> {
+			if (request.isCancelled()) {
+				return;
+			}
+
+			final Image image = loadSafely(loader);
+			Platform.runLater(() -> {
+				if (request.isCancelled()) {
+					MetricsUtil.increment("image.request.discarded");
+					return;
+				}
+				request.setDone();
+				if (image != null) {
+					consumer.accept(image);
+				}
+			});
+		}));
+		return request;
+	}
 
-		final Result<Image> imageResponse = TwitchUtil.getTwitch().imageUtil.getGameBox(game, ImageSize.SMALL_GAME_BOX, CONVERTER);
+	/**
+	 * @return the image of the given url if it is cached in memory, null otherwise
+	 */
+	public static Image getCachedImage(final String url) {
+		return url == null ? null : IMAGE_CACHE.getIfPresent(url);
+	}
 
-		if (!imageResponse.isOk()) {
-			LOGGER.error("exception getting game logo for " + game, imageResponse.getErrorRaw());
+	public static Image getGameBox(final String game) {
+		if (game == null) {
 			return null;
 		}
 
-		return new ImageView(imageResponse.getResultRaw());
+		final String key = "gamebox:" + ImageSize.SMALL_GAME_BOX + ":" + game;
+		return GAME_BOX_REQUESTS.execute(key, () -> IMAGE_CACHE.get(key, () -> TwitchUtil.getTwitch().imageUtil.getGameBox(game, ImageSize.SMALL_GAME_BOX, BYTES_CONVERTER), Priority.DETAIL));
 	}
 
-	public static Image getPreviewFromTwitch(final Channel channel) {
-
-		final Result<Image> imageResponse = TwitchUtil.getTwitch().imageUtil.getStreamPreview(channel.getName(), ImageSize.LARGE_PREVIEW, CONVERTER);
-
-		if (!imageResponse.isOk()) {
-			LOGGER.error("exception getting channel preview for " + channel, imageResponse.getErrorRaw());
+	/**
+	 * Retrieves the current preview of the given channel unconditionally and decodes it at the given size, previews are
+	 * not cached since they change with every refresh.
+	 */
+	public static Image getPreview(final String channel, final int width, final int height) {
+		if (channel == null) {
 			return null;
 		}
 
-		return imageResponse.getResultRaw();
-	}
-
-	public static ImageView getChannelLogo(final String logoURL) {
-		final ImageView iv = new ImageView(getImageInternal(logoURL));
-		iv.setFitHeight(72);
-		iv.setFitWidth(72);
-		iv.setSmooth(true);
-		iv.setCache(true);
-		return iv;
+		final byte[] data = PreviewRetriever.retrievePreview(channel, width, height);
+		if (data == null) {
+			return null;
+		}
+		return ImageDecoder.decode(data, width, height, Priority.DETAIL);
 	}
 
-	public static void updatePreviewAsyncFromTwitch(final Channel channel) {
-		ExecutorUtil.getExecutorService().submit(new AsyncImageUpdateTask(channel));
+	/**
+	 * @return a neutral image of the given size, shown until the actual image is loaded
+	 */
+	public static Image createPlaceholder(final int width, final int height) {
+		final WritableImage placeholder = new WritableImage(width, height);
+		final PixelWriter writer = placeholder.getPixelWriter();
+		final Color color = Color.gray(0.5, 0.25);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				writer.setColor(x, y, color);
+			}
+		}
+		return placeholder;
 	}
 
-	public static class AsyncImageUpdateTask implements Callable<Void> {
-		private final Channel channel;
-
-
-		public AsyncImageUpdateTask(final Channel channel) {
-			this.channel = channel;
+	private static Image loadSafely(final Supplier<Image> loader) {
+		try {
+			return loader.get();
+		} catch (final RuntimeException e) {
+			LOGGER.warn("failed to load image", e);
+			return null;
 		}
+	}
 
-		@Override
-		public Void call() throws Exception {
-			channel.setPreview(getPreviewFromTwitch(channel));
-			return null;
+	private static byte[] readBytes(final InputStream stream) {
+		try {
+			final ByteArrayOutputStream result = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read = stream.read(buffer)) != -1) {
+				result.write(buffer, 0, read);
+			}
+			return result.toByteArray();
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
 		}
 	}
-}
\ No newline at end of file
+}
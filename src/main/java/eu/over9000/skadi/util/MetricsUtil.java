@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters for runtime statistics, e.g. cache hits or deduplicated requests.
+ */
+public class MetricsUtil {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MetricsUtil.class);
+
+	private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+	public static void increment(final String name) {
+		add(name, 1);
+	}
+
+	public static void add(final String name, final long value) {
+		COUNTERS.computeIfAbsent(name, key -> new LongAdder()).add(value);
+	}
+
+	public static long get(final String name) {
+		final LongAdder counter = COUNTERS.get(name);
+		return counter == null ? 0 : counter.sum();
+	}
+
+	public static SortedMap<String, Long> getSnapshot() {
+		final SortedMap<String, Long> snapshot = new TreeMap<>();
+		COUNTERS.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+		return snapshot;
+	}
+
+	public static void logSummary() {
+		getSnapshot().forEach((name, value) -> LOGGER.info("metric " + name + ": " + value));
+	}
+}
@@ -24,39 +24,118 @@ package eu.over9000.skadi.util;
 
 import eu.over9000.skadi.model.Channel;
 import eu.over9000.skadi.model.StateContainer;
-import eu.over9000.skadi.service.ImageRetrievalService;
+import eu.over9000.skadi.util.ImageDecoder.Priority;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.scene.Scene;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.util.Duration;
 import org.controlsfx.control.Notifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Shows the go-live notifications. Events are collected for a short window, a burst of events (e.g. after startup or a
+ * network outage) is shown as a single summary. The logo of a single notification is loaded in the background (from
+ * memory, disk or the network) and decoded at the notification size before the notification is shown.
+ */
 public class NotificationUtil {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(NotificationUtil.class);
+
+	private static final Duration BATCH_WINDOW = Duration.seconds(2);
+	private static final int SUMMARY_THRESHOLD = 3;
+	private static final int SUMMARY_NAMES = 5;
+	private static final int LOGO_SIZE = 72;
+
 	private static Stage dummyStage;
 	private static StateContainer state;
 
+	// only accessed on the JavaFX thread
+	private static final List<Channel> pending = new ArrayList<>();
+	private static PauseTransition batchTimer;
+
 	public static void init(final StateContainer state) {
 		NotificationUtil.state = state;
 		dummyStage = buildDummyStage();
+		batchTimer = new PauseTransition(BATCH_WINDOW);
+		batchTimer.setOnFinished(event -> showPending());
 	}
 
 	public static void showOnlineNotification(final Channel channel) {
+		if (!state.isDisplayNotifications() || pending.contains(channel)) {
+			return;
+		}
 
-		if (state.isDisplayNotifications()) {
-			final ImageRetrievalService service = new ImageRetrievalService(channel.getLogoURL(), 72, 72);
-			service.setOnSucceeded(event -> {
-				final ImageView img = (ImageView) event.getSource().getValue();
+		pending.add(channel);
+		if (pending.size() == 1) {
+			batchTimer.playFromStart();
+		}
+	}
+
+	private static void showPending() {
+		final List<Channel> channels = new ArrayList<>(pending);
+		pending.clear();
 
-				Notifications.create().text(channel.getName() + " went live").title("Skadi").hideAfter(Duration.seconds(5)).graphic(img).show();
-			});
-			service.start();
+		MetricsUtil.add("notification.events", channels.size());
+		if (channels.size() >= SUMMARY_THRESHOLD) {
+			MetricsUtil.increment("notification.summaries");
+			showSummary(channels);
+		} else {
+			channels.forEach(NotificationUtil::loadSingle);
 		}
 	}
 
+	private static void loadSingle(final Channel channel) {
+		final String logoURL = channel.getLogoURL();
+		ExecutorUtil.getExecutorService().submit(() -> {
+			final Image logo = loadLogo(logoURL);
+			Platform.runLater(() -> showSingle(channel, logo));
+		});
+	}
+
+	private static Image loadLogo(final String url) {
+		try {
+			return ImageUtil.getImageInternal(url, LOGO_SIZE, LOGO_SIZE, Priority.DETAIL);
+		} catch (final RuntimeException e) {
+			LOGGER.warn("failed to load notification logo " + url, e);
+			return null;
+		}
+	}
+
+	private static void showSingle(final Channel channel, final Image logo) {
+		final Notifications notification = Notifications.create().text(channel.getName() + " went live").title("Skadi").hideAfter(Duration.seconds(5));
+
+		if (logo != null) {
+			final ImageView img = new ImageView(logo);
+			img.setFitHeight(LOGO_SIZE);
+			img.setFitWidth(LOGO_SIZE);
+			img.setSmooth(true);
+			notification.graphic(img);
+		}
+
+		notification.show();
+	}
+
+	private static void showSummary(final List<Channel> channels) {
+		String names = channels.stream().limit(SUMMARY_NAMES).map(Channel::getName).collect(Collectors.joining(", "));
+		if (channels.size() > SUMMARY_NAMES) {
+			names += " and " + (channels.size() - SUMMARY_NAMES) + " more";
+		}
+
+		Notifications.create().text(channels.size() + " channels went live:\n" + names).title("Skadi").hideAfter(Duration.seconds(8)).show();
+	}
+
 	public static void onShutdown() {
+		batchTimer.stop();
 		dummyStage.hide();
 	}
 
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Token bucket rate limiter with priority classes. A request may only take a token if no request of a higher priority is
+ * waiting, so interactive requests jump ahead of bulk and background work.
+ * <p>
+ * The effective rate is lowered multiplicatively when the server reports throttling and recovers additively with every
+ * successful request, up to the configured rate.
+ */
+public class RateLimiter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RateLimiter.class);
+
+	private static final double MIN_RATE = 0.5;
+	private static final double RECOVERY_STEP = 0.05;
+
+	private final Object lock = new Object();
+	private final int[] waiting = new int[Priority.values().length];
+
+	private final double configuredRate;
+	private final double burst;
+	private double rate;
+	private double tokens;
+	private long lastRefill;
+
+	/**
+	 * @param rate
+	 * 		tokens per second
+	 * @param burst
+	 * 		maximum number of tokens that can be accumulated
+	 */
+	public RateLimiter(final double rate, final double burst) {
+		this.configuredRate = rate;
+		this.rate = rate;
+		this.burst = burst;
+		this.tokens = burst;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * Blocks until a token for the given priority is available. An interrupt stops the waiting without taking a token,
+	 * the interrupt flag of the thread is restored.
+	 *
+	 * @return true if a token was taken, false if the thread was interrupted
+	 */
+	public boolean acquire(final Priority priority) {
+		synchronized (lock) {
+			waiting[priority.ordinal()]++;
+			try {
+				while (true) {
+					refill();
+
+					final boolean preceded = isPreceded(priority);
+					if (tokens >= 1 && !preceded) {
+						tokens -= 1;
+						return true;
+					}
+
+					final long waitMillis = preceded ? 10 : (long) Math.ceil((1 - tokens) / rate * 1000);
+					lock.wait(Math.max(1, waitMillis));
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} finally {
+				waiting[priority.ordinal()]--;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Called when the server rejected a request because of rate limiting.
+	 */
+	public void onThrottled() {
+		synchronized (lock) {
+			rate = Math.max(MIN_RATE, rate / 2);
+			tokens = Math.min(tokens, 0);
+			LOGGER.warn("rate limited by server, lowering request rate to " + rate + "/s");
+		}
+	}
+
+	public void onSuccess() {
+		synchronized (lock) {
+			if (rate < configuredRate) {
+				rate = Math.min(configuredRate, rate + RECOVERY_STEP);
+			}
+		}
+	}
+
+	public double getRate() {
+		synchronized (lock) {
+			return rate;
+		}
+	}
+
+	private boolean isPreceded(final Priority priority) {
+		for (int i = 0; i < priority.ordinal(); i++) {
+			if (waiting[i] > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void refill() {
+		final long now = System.nanoTime();
+		tokens = Math.min(burst, tokens + (now - lastRefill) / 1_000_000_000.0 * rate);
+		lastRefill = now;
+	}
+
+	/**
+	 * Priority classes, ordered from highest to lowest.
+	 */
+	public enum Priority {
+		/**
+		 * Directly requested by the user and waited for, e.g. the detail pane or adding a channel.
+		 */
+		INTERACTIVE,
+		/**
+		 * User triggered bulk work, e.g. a forced refresh or follow synchronization.
+		 */
+		BULK,
+		/**
+		 * Scheduled work, e.g. the channel polling.
+		 */
+		BACKGROUND
+	}
+}
@@ -22,9 +22,13 @@
 
 package eu.over9000.skadi.util;
 
+import eu.over9000.cathode.Result;
 import eu.over9000.cathode.Twitch;
+import eu.over9000.skadi.util.RateLimiter.Priority;
+import org.apache.http.client.HttpResponseException;
 
 import java.net.URI;
+import java.util.concurrent.CancellationException;
 
 public class TwitchUtil {
 
@@ -32,6 +36,18 @@ public class TwitchUtil {
 	private static final String AUTH_REDIRECT = "https://janstrauss.github.io/skadi/auth/";
 	private static final String AUTH_SCOPE = "user_follows_edit";
 
+	/**
+	 * System properties overriding the API request budget (requests per second and burst size).
+	 */
+	public static final String API_REQUEST_RATE_PROPERTY = "skadi.api.rate";
+	public static final String API_REQUEST_BURST_PROPERTY = "skadi.api.burst";
+
+	private static final double DEFAULT_API_REQUEST_RATE = 5;
+	private static final double DEFAULT_API_REQUEST_BURST = 10;
+	private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+	private static final RateLimiter RATE_LIMITER = new RateLimiter(getBudget(API_REQUEST_RATE_PROPERTY, DEFAULT_API_REQUEST_RATE), getBudget(API_REQUEST_BURST_PROPERTY, DEFAULT_API_REQUEST_BURST));
+
 	private static Twitch twitch;
 
 	public static void init() {
@@ -42,10 +58,65 @@ public class TwitchUtil {
 		twitch = new Twitch(SKADI_CLIENT_ID, authToken);
 	}
 
+	/**
+	 * Returns the client without rate limiting, only to be used for the image CDN (twitch.imageUtil).
+	 */
 	public static Twitch getTwitch() {
 		return twitch;
 	}
 
+	/**
+	 * Returns the client after taking a token of the shared API rate limiter, use once per API request.
+	 *
+	 * @throws CancellationException if the thread was interrupted while waiting for a token, the request must not be
+	 * 		sent then (the interrupt flag stays set)
+	 */
+	public static Twitch getTwitch(final Priority priority) {
+		if (!RATE_LIMITER.acquire(priority)) {
+			throw new CancellationException("interrupted while waiting for the rate limiter");
+		}
+		return twitch;
+	}
+
+	/**
+	 * Feeds the outcome of an API request back to the rate limiter. The client does not expose the rate limit headers of
+	 * the response, so throttling is detected by the status code of the failed response.
+	 */
+	public static <T> Result<T> track(final Result<T> result) {
+		if (result.isOk()) {
+			RATE_LIMITER.onSuccess();
+		} else if (getHttpStatus(result) == HTTP_TOO_MANY_REQUESTS) {
+			RATE_LIMITER.onThrottled();
+		}
+		return result;
+	}
+
+	/**
+	 * @return the HTTP status code of a failed request, or -1 if it did not fail with an error response (e.g. a
+	 * connection failure)
+	 */
+	public static int getHttpStatus(final Result<?> result) {
+		for (Throwable cause = result.getErrorRaw(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof HttpResponseException) {
+				return ((HttpResponseException) cause).getStatusCode();
+			}
+		}
+		return -1;
+	}
+
+	private static double getBudget(final String property, final double defaultValue) {
+		final String value = System.getProperty(property);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			final double budget = Double.parseDouble(value);
+			return budget > 0 ? budget : defaultValue;
+		} catch (final NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
 	public static URI buildAuthUrl() {
 		return Twitch.buildTokenAuthURI(SKADI_CLIENT_ID, AUTH_REDIRECT, AUTH_SCOPE);
 	}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.io;
+
+import eu.over9000.skadi.model.StateContainer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BinaryStateCodecTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final StateContainer state = new StateContainer();
+		for (int i = 0; i < 10000; i++) {
+			state.getChannels().add("channel_" + i);
+		}
+		state.getStreamlinkArgs().addAll(Arrays.asList("--player-passthrough", "hls"));
+		state.setExecutableChrome("/usr/bin/chromium");
+		state.setExecutableStreamlink("/usr/bin/streamlink");
+		state.setDisplayNotifications(false);
+		state.setMinimizeToTray(true);
+		state.setOnlineFilterActive(true);
+		state.setUseDarkTheme(true);
+		state.setShowGrid(true);
+		state.setWindowWidth(1920);
+		state.setWindowHeight(1080);
+		state.setGridScale(0.5);
+		state.setAuthToken(null);
+		state.setPreviewRefreshInterval(10);
+
+		final StateContainer decoded = BinaryStateCodec.decode(BinaryStateCodec.encode(state));
+
+		assertEquals(state.getChannels(), decoded.getChannels());
+		assertEquals(state.getStreamlinkArgs(), decoded.getStreamlinkArgs());
+		assertEquals(state.getExecutableChrome(), decoded.getExecutableChrome());
+		assertEquals(state.getExecutableStreamlink(), decoded.getExecutableStreamlink());
+		assertEquals(state.isDisplayNotifications(), decoded.isDisplayNotifications());
+		assertEquals(state.isMinimizeToTray(), decoded.isMinimizeToTray());
+		assertEquals(state.isOnlineFilterActive(), decoded.isOnlineFilterActive());
+		assertEquals(state.isUseDarkTheme(), decoded.isUseDarkTheme());
+		assertEquals(state.isShowGrid(), decoded.isShowGrid());
+		assertEquals(state.getWindowWidth(), decoded.getWindowWidth(), 0);
+		assertEquals(state.getWindowHeight(), decoded.getWindowHeight(), 0);
+		assertEquals(state.getGridScale(), decoded.getGridScale(), 0);
+		assertNull(decoded.getAuthToken());
+		assertEquals(state.getPreviewRefreshInterval(), decoded.getPreviewRefreshInterval());
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncated() throws IOException {
+		final StateContainer state = new StateContainer();
+		state.getChannels().add("channel");
+		final byte[] data = BinaryStateCodec.encode(state);
+
+		BinaryStateCodec.decode(Arrays.copyOf(data, data.length - 8));
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorrupted() throws IOException {
+		final StateContainer state = new StateContainer();
+		state.getChannels().add("channel");
+		final byte[] data = BinaryStateCodec.encode(state);
+		data[12] ^= 0x01;
+
+		BinaryStateCodec.decode(data);
+	}
+
+	@Test
+	public void testDetection() throws IOException {
+		assertTrue(BinaryStateCodec.isBinaryState(BinaryStateCodec.encode(new StateContainer())));
+		assertFalse(BinaryStateCodec.isBinaryState("<?xml version=\"1.0\"?><skadi_data/>".getBytes(StandardCharsets.UTF_8)));
+		assertFalse(BinaryStateCodec.isBinaryState(new byte[0]));
+	}
+}
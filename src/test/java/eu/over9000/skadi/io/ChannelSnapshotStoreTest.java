@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.io;
+
+import eu.over9000.skadi.io.ChannelSnapshotStore.Entry;
+import eu.over9000.skadi.remote.data.ChannelMetadata;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ChannelSnapshotStoreTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final Path file = folder.newFolder().toPath().resolve(ChannelSnapshotStore.SNAPSHOT_FILE);
+		final long now = System.currentTimeMillis();
+
+		final Map<String, Entry> entries = new HashMap<>();
+		entries.put("online", new Entry(new ChannelMetadata("title", 42L, 3600L, true, "game", "http://logo", 100L, 1000L, true), now));
+		entries.put("unknown", new Entry(new ChannelMetadata(null, null, null, null, null, null, null, null, null), now));
+		entries.put("expired", new Entry(new ChannelMetadata("title", 0L, 0L, false, "game", null, 1L, 2L, false), now - TimeUnit.DAYS.toMillis(8)));
+
+		final ChannelSnapshotStore store = new ChannelSnapshotStore(file);
+		store.save(entries);
+		store.shutdown();
+
+		final Map<String, Entry> loaded = new ChannelSnapshotStore(file).load();
+		assertEquals(2, loaded.size());
+		assertFalse(loaded.containsKey("expired"));
+
+		final Entry online = loaded.get("online");
+		assertEquals(now, online.getTimestamp());
+		assertEquals("title", online.getMetadata().getTitle());
+		assertEquals(42L, (long) online.getMetadata().getViewer());
+		assertEquals(3600L, (long) online.getMetadata().getUptime());
+		assertEquals(Boolean.TRUE, online.getMetadata().getOnline());
+		assertEquals("game", online.getMetadata().getGame());
+		assertEquals("http://logo", online.getMetadata().getLogoURL());
+		assertEquals(100L, (long) online.getMetadata().getFollowers());
+		assertEquals(1000L, (long) online.getMetadata().getViews());
+		assertEquals(Boolean.TRUE, online.getMetadata().getPartner());
+
+		final ChannelMetadata unknown = loaded.get("unknown").getMetadata();
+		assertNull(unknown.getTitle());
+		assertNull(unknown.getViewer());
+		assertNull(unknown.getOnline());
+		assertNull(unknown.getLogoURL());
+		assertNull(unknown.getPartner());
+	}
+
+	@Test
+	public void testCorrupted() throws IOException {
+		final Path file = folder.newFolder().toPath().resolve(ChannelSnapshotStore.SNAPSHOT_FILE);
+
+		final Map<String, Entry> entries = new HashMap<>();
+		entries.put("channel", new Entry(new ChannelMetadata("title", 42L, 3600L, true, "game", null, 100L, 1000L, false), System.currentTimeMillis()));
+
+		final ChannelSnapshotStore store = new ChannelSnapshotStore(file);
+		store.save(entries);
+		store.shutdown();
+
+		final byte[] data = Files.readAllBytes(file);
+		data[12] ^= 1;
+		Files.write(file, data);
+		assertTrue(new ChannelSnapshotStore(file).load().isEmpty());
+
+		Files.write(file, new byte[]{'S', 'K', 'D', 'C', 0});
+		assertTrue(new ChannelSnapshotStore(file).load().isEmpty());
+	}
+
+	@Test
+	public void testMissing() throws IOException {
+		assertTrue(new ChannelSnapshotStore(folder.newFolder().toPath().resolve(ChannelSnapshotStore.SNAPSHOT_FILE)).load().isEmpty());
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.io;
+
+import eu.over9000.skadi.model.StateContainer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary state format with the JAXB XML format, run with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateCodecBenchmark {
+
+	@Param({"100", "10000"})
+	private int channelCount;
+
+	private StateContainer state;
+	private byte[] binary;
+	private byte[] xml;
+	private Marshaller marshaller;
+	private Unmarshaller unmarshaller;
+
+	public static void main(final String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(StateCodecBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	@Setup
+	public void setup() throws IOException, JAXBException {
+		state = new StateContainer();
+		for (int i = 0; i < channelCount; i++) {
+			state.getChannels().add("channel_" + i);
+		}
+
+		final JAXBContext context = JAXBContext.newInstance(StateContainer.class);
+		marshaller = context.createMarshaller();
+		marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+		unmarshaller = context.createUnmarshaller();
+
+		binary = BinaryStateCodec.encode(state);
+		xml = marshalXml();
+	}
+
+	@Benchmark
+	public byte[] encodeBinary() throws IOException {
+		return BinaryStateCodec.encode(state);
+	}
+
+	@Benchmark
+	public StateContainer decodeBinary() throws IOException {
+		return BinaryStateCodec.decode(binary);
+	}
+
+	@Benchmark
+	public byte[] encodeXml() throws JAXBException {
+		return marshalXml();
+	}
+
+	@Benchmark
+	public Object decodeXml() throws JAXBException {
+		return unmarshaller.unmarshal(new ByteArrayInputStream(xml));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	public Unmarshaller createJaxbContext() throws JAXBException {
+		return JAXBContext.newInstance(StateContainer.class).createUnmarshaller();
+	}
+
+	private byte[] marshalXml() throws JAXBException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		marshaller.marshal(state, out);
+		return out.toByteArray();
+	}
+}
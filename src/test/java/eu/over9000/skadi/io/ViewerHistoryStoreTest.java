@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.io;
+
+import eu.over9000.skadi.io.ViewerHistoryStore.Sample;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ViewerHistoryStoreTest {
+
+	private static final long RETENTION = TimeUnit.DAYS.toMillis(30);
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testQueryRange() throws IOException {
+		final Path directory = folder.newFolder().toPath();
+		final long start = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+
+		final ViewerHistoryStore store = new ViewerHistoryStore(directory, RETENTION);
+		for (int i = 0; i < 1000; i++) {
+			store.append("channel", start + i * 10, i);
+		}
+		store.shutdown();
+
+		final List<Sample> range = store.query("channel", start + 105, start + 200);
+		assertEquals(10, range.size());
+		assertEquals(start + 110, range.get(0).getTimestamp());
+		assertEquals(11, range.get(0).getViewers());
+		assertEquals(start + 200, range.get(9).getTimestamp());
+
+		assertEquals(1000, store.query("channel", start, Long.MAX_VALUE).size());
+		assertEquals(1, store.query("channel", start + 9990, start + 9990).size());
+		assertTrue(store.query("channel", 0, start - 1).isEmpty());
+		assertTrue(store.query("channel", start + 9991, Long.MAX_VALUE).isEmpty());
+		assertTrue(store.query("unknown", 0, Long.MAX_VALUE).isEmpty());
+	}
+
+	@Test
+	public void testCompaction() throws IOException {
+		final Path directory = folder.newFolder().toPath();
+		final long now = System.currentTimeMillis();
+		final long expired = now - RETENTION - TimeUnit.HOURS.toMillis(1);
+
+		final long[] viewers = {5, 5, 5, 5, 7, 7, 7, 9};
+		final ByteBuffer data = ByteBuffer.allocate((viewers.length + 2) * 16);
+		data.putLong(expired).putLong(1).putLong(expired + 1).putLong(2);
+		for (int i = 0; i < viewers.length; i++) {
+			data.putLong(now + i).putLong(viewers[i]);
+		}
+		final Path segment = directory.resolve("channel.hist");
+		Files.write(segment, data.array());
+
+		// the segments are compacted when the store is opened, shutting down waits for it
+		final ViewerHistoryStore store = new ViewerHistoryStore(directory, RETENTION);
+		store.shutdown();
+
+		final List<Sample> samples = store.query("channel", 0, Long.MAX_VALUE);
+		final long[] expectedTimestamps = {now, now + 3, now + 4, now + 6, now + 7};
+		assertEquals(expectedTimestamps.length, samples.size());
+		for (int i = 0; i < expectedTimestamps.length; i++) {
+			assertEquals(expectedTimestamps[i], samples.get(i).getTimestamp());
+		}
+		assertEquals(expectedTimestamps.length * 16, Files.size(segment));
+	}
+
+	@Test
+	public void testPartialRecord() throws IOException {
+		final Path directory = folder.newFolder().toPath();
+		final long now = System.currentTimeMillis();
+
+		final ByteBuffer data = ByteBuffer.allocate(3 * 16 + 5);
+		for (int i = 0; i < 3; i++) {
+			data.putLong(now + i).putLong(i);
+		}
+		final Path segment = directory.resolve("channel.hist");
+		Files.write(segment, data.array());
+
+		final ViewerHistoryStore store = new ViewerHistoryStore(directory, RETENTION);
+		store.shutdown();
+
+		assertEquals(3 * 16, Files.size(segment));
+		assertEquals(3, store.query("channel", 0, Long.MAX_VALUE).size());
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.model;
+
+import eu.over9000.skadi.remote.data.ChannelMetadata;
+import javafx.collections.ListChangeListener;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ChannelListTest {
+
+	private ChannelList list;
+	private List<Integer> updated;
+	private int changes;
+
+	@Before
+	public void setUp() {
+		list = new ChannelList();
+		updated = new ArrayList<>();
+		changes = 0;
+	}
+
+	@Test
+	public void testRevisionChangeIsReportedAsUpdate() {
+		final Channel first = new Channel("first");
+		final Channel second = new Channel("second");
+		list.add(first);
+		list.add(second);
+		listen();
+
+		setTitle(second, "title");
+
+		assertEquals(1, changes);
+		assertEquals(1, updated.size());
+		assertEquals(1, (int) updated.get(0));
+	}
+
+	@Test
+	public void testBatchIsReportedOnce() {
+		final Channel first = new Channel("first");
+		final Channel second = new Channel("second");
+		list.add(first);
+		list.add(second);
+		listen();
+
+		list.batchUpdate(() -> {
+			setTitle(first, "title");
+			setTitle(second, "title");
+		});
+
+		assertEquals(1, changes);
+		assertEquals(2, updated.size());
+		assertTrue(updated.contains(0));
+		assertTrue(updated.contains(1));
+	}
+
+	@Test
+	public void testPositionsFollowInsertionsAndRemovals() {
+		final Channel first = new Channel("first");
+		final Channel second = new Channel("second");
+		final Channel third = new Channel("third");
+		list.add(first);
+		list.add(second);
+		list.add(0, third);
+		listen();
+
+		setTitle(second, "title");
+		assertEquals(2, (int) updated.get(0));
+
+		list.remove(third);
+		updated.clear();
+		setTitle(second, "other title");
+		assertEquals(1, (int) updated.get(0));
+	}
+
+	@Test
+	public void testRemovedChannelIsNotObserved() {
+		final Channel channel = new Channel("channel");
+		list.add(channel);
+		assertTrue(list.contains(channel));
+
+		list.remove(channel);
+		assertFalse(list.contains(channel));
+
+		listen();
+		setTitle(channel, "title");
+		assertEquals(0, changes);
+	}
+
+	private void listen() {
+		list.addListener((ListChangeListener<Channel>) change -> {
+			changes++;
+			while (change.next()) {
+				if (change.wasUpdated()) {
+					for (int i = change.getFrom(); i < change.getTo(); i++) {
+						updated.add(i);
+					}
+				}
+			}
+		});
+	}
+
+	private static void setTitle(final Channel channel, final String title) {
+		channel.updateFrom(new ChannelMetadata(title, null, null, null, null, null, null, null, null));
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.remote;
+
+import eu.over9000.skadi.remote.CircuitBreaker.Endpoint;
+import eu.over9000.skadi.remote.CircuitBreaker.State;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+	private static final long INITIAL_BACKOFF = TimeUnit.SECONDS.toMillis(5);
+
+	private long now;
+	private CircuitBreaker breaker;
+
+	@Before
+	public void setUp() {
+		now = 1000;
+		breaker = new CircuitBreaker(Endpoint.STREAMS, () -> now);
+	}
+
+	@Test
+	public void testStaysClosedBelowMinimumCalls() {
+		for (int i = 0; i < 4; i++) {
+			breaker.onFailure();
+		}
+		assertEquals(State.CLOSED, breaker.getState());
+		assertTrue(breaker.allowRequest());
+	}
+
+	@Test
+	public void testOpensAtFailureRate() {
+		for (int i = 0; i < 10; i++) {
+			breaker.onSuccess();
+		}
+		for (int i = 0; i < 9; i++) {
+			breaker.onFailure();
+		}
+		assertEquals(State.CLOSED, breaker.getState());
+
+		// 10 of 20 requests failed
+		breaker.onFailure();
+		assertEquals(State.OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest());
+		assertFalse(breaker.isAvailable());
+	}
+
+	@Test
+	public void testSingleProbeAfterBackoff() {
+		open();
+
+		now += INITIAL_BACKOFF - 1;
+		assertFalse(breaker.allowRequest());
+
+		now += 1;
+		assertTrue(breaker.isAvailable());
+		assertTrue(breaker.allowRequest());
+		assertEquals(State.HALF_OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest());
+	}
+
+	@Test
+	public void testSuccessfulProbeCloses() {
+		open();
+		now += INITIAL_BACKOFF;
+		assertTrue(breaker.allowRequest());
+
+		breaker.onSuccess();
+		assertEquals(State.CLOSED, breaker.getState());
+
+		// the window was cleared, a single failure does not open the circuit again
+		breaker.onFailure();
+		assertEquals(State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void testFailedProbeDoublesBackoff() {
+		open();
+		now += INITIAL_BACKOFF;
+		assertTrue(breaker.allowRequest());
+
+		breaker.onFailure();
+		assertEquals(State.OPEN, breaker.getState());
+
+		now += INITIAL_BACKOFF;
+		assertFalse(breaker.allowRequest());
+		now += INITIAL_BACKOFF;
+		assertTrue(breaker.allowRequest());
+	}
+
+	@Test
+	public void testLateSuccessKeepsCircuitOpen() {
+		open();
+		breaker.onSuccess();
+		assertEquals(State.OPEN, breaker.getState());
+	}
+
+	private void open() {
+		for (int i = 0; i < 5; i++) {
+			breaker.onFailure();
+		}
+		assertEquals(State.OPEN, breaker.getState());
+	}
+}
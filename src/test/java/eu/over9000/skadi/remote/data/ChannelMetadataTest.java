@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.remote.data;
+
+import eu.over9000.skadi.model.Channel;
+import eu.over9000.skadi.model.ChannelField;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ChannelMetadataTest {
+
+	@Test
+	public void testCurrentStateHasNoChanges() {
+		final Channel channel = new Channel("test");
+		channel.restoreFrom(metadata("title", 100L, true, "game"), 0);
+
+		assertEquals(0, channel.toMetadata().diff(channel));
+	}
+
+	@Test
+	public void testChangedFieldsAreMasked() {
+		final Channel channel = new Channel("test");
+		channel.restoreFrom(metadata("title", 100L, true, "game"), 0);
+
+		assertEquals(ChannelField.VIEWER.mask(), metadata("title", 101L, true, "game").diff(channel));
+		assertEquals(ChannelField.TITLE.mask() | ChannelField.GAME.mask(), metadata("other title", 100L, true, "other game").diff(channel));
+		assertEquals(ChannelField.ONLINE.mask(), metadata("title", 100L, false, "game").diff(channel));
+	}
+
+	@Test
+	public void testMissingFieldsAreNotChanges() {
+		final Channel channel = new Channel("test");
+		channel.restoreFrom(metadata("title", 100L, true, "game"), 0);
+
+		assertEquals(0, metadata(null, null, null, null).diff(channel));
+		assertEquals(ChannelField.VIEWER.mask(), metadata(null, 0L, null, null).diff(channel));
+	}
+
+	@Test
+	public void testUnknownOnlineStateIsChanged() {
+		final Channel channel = new Channel("test");
+
+		final int changes = metadata(null, null, false, null).diff(channel);
+		assertEquals(ChannelField.ONLINE.mask(), changes);
+		assertEquals(0, changes & ~ChannelField.LIST_FIELDS);
+	}
+
+	@Test
+	public void testUptimeIsNoListField() {
+		final Channel channel = new Channel("test");
+		channel.restoreFrom(metadata("title", 100L, true, "game"), 0);
+
+		final ChannelMetadata update = new ChannelMetadata("title", 100L, 60L, true, "game", null, null, null, null);
+		final int changes = update.diff(channel);
+		assertEquals(ChannelField.UPTIME.mask(), changes);
+		assertEquals(0, changes & ChannelField.LIST_FIELDS);
+	}
+
+	private static ChannelMetadata metadata(final String title, final Long viewer, final Boolean online, final String game) {
+		return new ChannelMetadata(title, viewer, null, online, game, null, null, null, null);
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.service.helper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AdaptivePollingPolicyTest {
+
+	private static final long LIVE = 30;
+	private static final long OFFLINE = 60;
+	private static final long MAX = 300;
+	private static final long BACKOFF = 900;
+
+	private final AdaptivePollingPolicy policy = new AdaptivePollingPolicy(LIVE, OFFLINE, MAX, BACKOFF);
+
+	@Test
+	public void testUnknownAndLiveChannelsUseLiveInterval() {
+		final ChannelPollState state = new ChannelPollState(LIVE, 0);
+		assertEquals(LIVE, policy.getNextInterval(state, 0));
+
+		state.updateOnline(true, 0);
+		assertEquals(LIVE, policy.getNextInterval(state, 10_000));
+	}
+
+	@Test
+	public void testSelectedChannelUsesLiveInterval() {
+		final ChannelPollState state = offlineSince(0);
+		state.setSelected(true);
+		assertEquals(LIVE, policy.getNextInterval(state, 10 * BACKOFF));
+	}
+
+	@Test
+	public void testOfflineIntervalBeforeBackoff() {
+		final ChannelPollState state = offlineSince(0);
+		assertEquals(OFFLINE, policy.getNextInterval(state, 0));
+		assertEquals(OFFLINE, policy.getNextInterval(state, BACKOFF - 1));
+	}
+
+	@Test
+	public void testIntervalDoublesAfterEveryBackoffDelay() {
+		final ChannelPollState state = offlineSince(0);
+		assertEquals(2 * OFFLINE, policy.getNextInterval(state, BACKOFF));
+		assertEquals(2 * OFFLINE, policy.getNextInterval(state, 2 * BACKOFF - 1));
+		assertEquals(4 * OFFLINE, policy.getNextInterval(state, 2 * BACKOFF));
+	}
+
+	@Test
+	public void testIntervalIsCapped() {
+		final ChannelPollState state = offlineSince(0);
+		assertEquals(MAX, policy.getNextInterval(state, 3 * BACKOFF));
+		assertEquals(MAX, policy.getNextInterval(state, 1000 * BACKOFF));
+	}
+
+	@Test
+	public void testComingOnlineResetsInterval() {
+		final ChannelPollState state = offlineSince(0);
+		assertEquals(MAX, policy.getNextInterval(state, 10 * BACKOFF));
+
+		state.updateOnline(true, 10 * BACKOFF);
+		assertEquals(LIVE, policy.getNextInterval(state, 10 * BACKOFF));
+
+		state.updateOnline(false, 11 * BACKOFF);
+		assertEquals(OFFLINE, policy.getNextInterval(state, 11 * BACKOFF));
+	}
+
+	private static ChannelPollState offlineSince(final long time) {
+		final ChannelPollState state = new ChannelPollState(LIVE, time);
+		state.updateOnline(false, time);
+		return state;
+	}
+}
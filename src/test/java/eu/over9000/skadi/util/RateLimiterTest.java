@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.util;
+
+import eu.over9000.skadi.util.RateLimiter.Priority;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+
+	@Test
+	public void testBurstThenRefill() {
+		final RateLimiter limiter = new RateLimiter(10, 2);
+
+		final long start = System.nanoTime();
+		assertTrue(limiter.acquire(Priority.BACKGROUND));
+		assertTrue(limiter.acquire(Priority.BACKGROUND));
+		assertTrue(elapsedMillis(start) < 50);
+
+		// the burst is used up, the next token is refilled after 100ms
+		assertTrue(limiter.acquire(Priority.BACKGROUND));
+		assertTrue(elapsedMillis(start) >= 80);
+	}
+
+	@Test
+	public void testHigherPriorityGoesFirst() throws InterruptedException {
+		final RateLimiter limiter = new RateLimiter(2, 1);
+		assertTrue(limiter.acquire(Priority.INTERACTIVE));
+
+		final List<Priority> order = Collections.synchronizedList(new ArrayList<>());
+		final Thread background = new Thread(() -> {
+			if (limiter.acquire(Priority.BACKGROUND)) {
+				order.add(Priority.BACKGROUND);
+			}
+		});
+		final Thread interactive = new Thread(() -> {
+			if (limiter.acquire(Priority.INTERACTIVE)) {
+				order.add(Priority.INTERACTIVE);
+			}
+		});
+
+		// both wait for the next token, the background request started waiting first
+		background.start();
+		Thread.sleep(100);
+		interactive.start();
+
+		background.join(5000);
+		interactive.join(5000);
+
+		assertEquals(2, order.size());
+		assertEquals(Priority.INTERACTIVE, order.get(0));
+		assertEquals(Priority.BACKGROUND, order.get(1));
+	}
+
+	@Test
+	public void testInterruptReturnsFalse() {
+		final RateLimiter limiter = new RateLimiter(0.1, 1);
+		assertTrue(limiter.acquire(Priority.BULK));
+
+		Thread.currentThread().interrupt();
+		assertFalse(limiter.acquire(Priority.BULK));
+		assertTrue(Thread.interrupted());
+	}
+
+	@Test
+	public void testThrottleAndRecovery() {
+		final RateLimiter limiter = new RateLimiter(4, 4);
+
+		limiter.onThrottled();
+		assertEquals(2, limiter.getRate(), 0.001);
+		limiter.onThrottled();
+		limiter.onThrottled();
+		limiter.onThrottled();
+		assertEquals(0.5, limiter.getRate(), 0.001);
+
+		for (int i = 0; i < 1000; i++) {
+			limiter.onSuccess();
+		}
+		assertEquals(4, limiter.getRate(), 0.001);
+	}
+
+	private static long elapsedMillis(final long start) {
+		return (System.nanoTime() - start) / 1_000_000;
+	}
+}
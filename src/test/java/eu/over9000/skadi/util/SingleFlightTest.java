@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2014-2016 Jan Strauß <jan[at]over9000.eu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package eu.over9000.skadi.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+	@Test
+	public void testConcurrentRequestsAreDeduplicated() throws Exception {
+		final SingleFlight<String, String> requests = new SingleFlight<>("test-dedup");
+		final AtomicInteger executions = new AtomicInteger();
+		final CountDownLatch release = new CountDownLatch(1);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final Future<String> first = executor.submit(() -> requests.execute("key", () -> {
+				executions.incrementAndGet();
+				await(release);
+				return "result";
+			}));
+			waitFor(() -> executions.get() == 1);
+
+			final Future<String> second = executor.submit(() -> requests.execute("key", () -> {
+				executions.incrementAndGet();
+				return "duplicate";
+			}));
+			waitFor(() -> requests.getDeduplicatedCount() == 1);
+
+			release.countDown();
+			assertEquals("result", first.get(5, TimeUnit.SECONDS));
+			assertEquals("result", second.get(5, TimeUnit.SECONDS));
+			assertEquals(1, executions.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCompletedRequestIsExecutedAgain() {
+		final SingleFlight<String, Integer> requests = new SingleFlight<>("test-sequential");
+		final AtomicInteger executions = new AtomicInteger();
+
+		assertEquals(1, (int) requests.execute("key", executions::incrementAndGet));
+		assertEquals(2, (int) requests.execute("key", executions::incrementAndGet));
+		assertEquals(0, requests.getDeduplicatedCount());
+	}
+
+	@Test
+	public void testDifferentKeysAreNotDeduplicated() {
+		final SingleFlight<String, String> requests = new SingleFlight<>("test-keys");
+
+		// a request for another key while one is in flight is executed, not joined
+		assertEquals("b", requests.execute("a", () -> requests.execute("b", () -> "b")));
+		assertEquals(0, requests.getDeduplicatedCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFailureIsPropagated() {
+		final SingleFlight<String, String> requests = new SingleFlight<>("test-failure");
+		requests.execute("key", () -> {
+			throw new IllegalStateException("failed");
+		});
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void waitFor(final Condition condition) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.isMet()) {
+			assertTrue("timed out", System.currentTimeMillis() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	private interface Condition {
+		boolean isMet();
+	}
+}